@@ -16,12 +16,15 @@
 
 package functions;
 
-import types.tuples.Pair;
+import types.columns.DoubleColumn;
+import types.cursors.DoubleZipCursor;
+import types.statistics.ExponentialMovingCovariance;
+import types.statistics.ExponentialMovingStatistics;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
-import static functions.IterableFunctions.inPairs;
 import static java.lang.Math.*;
 
 /**
@@ -41,9 +44,9 @@ public final class FinancialFunctions {
     public static List<Double> getReturnsFromEquities(Iterable<Double> equities) {
         List<Double> returns = new ArrayList<>();
 
-        for (Pair<Double, Double> previousAndCurrent : inPairs(equities)) {
-            double previousEquity = previousAndCurrent.first(), equity = previousAndCurrent.second();
-            returns.add(getReturn(previousEquity, equity));
+        DoubleZipCursor previousAndCurrent = consecutivePairs(equities);
+        while (previousAndCurrent.advance()) {
+            returns.add(getReturn(previousAndCurrent.first(), previousAndCurrent.second()));
         }
 
         return returns;
@@ -53,16 +56,27 @@ public final class FinancialFunctions {
      * Given a set of fractional returns, calculate the consistent return necessary to achieve the same overall return
      * over the same time period.
      * @param returns The actual returns over the time period
-     * @return The return with which you could replace all given, actual returns and still end up with the same overall return
+     * @return The return with which you could replace all given, actual returns and still end up with the same overall
+     * return. Zero if there are no returns.
+     * @see IterableFunctions#getGeometricMean(Iterable)
      */
     public static double getGeometricAverageReturn(Iterable<Double> returns) {
-        double finalEquity = 1d;
-        int size = 0;
-        for (double datum : returns) {
-            finalEquity *= (1 + datum);
-            size++;
+        double[] logarithmSumAndSize = IterableFunctions.sumOfLogarithms(returns, true);
+        if (logarithmSumAndSize[1] == 0) {
+            return 0;
+        }
+        return expm1(logarithmSumAndSize[0] / logarithmSumAndSize[1]);
+    }
+
+    /**
+     * As {@link FinancialFunctions#getGeometricAverageReturn(Iterable)}, for an off-heap column of returns, such as a
+     * long tick history mapped from a file.
+     */
+    public static double getGeometricAverageReturn(DoubleColumn returns) {
+        if (returns.length() == 0) {
+            return 0;
         }
-        return expressReturnOverDifferentPeriod(getReturn(1, finalEquity), size);
+        return expm1(IterableFunctions.sumOfLogarithms(returns, true) / returns.length());
     }
 
     /**
@@ -98,6 +112,40 @@ public final class FinancialFunctions {
         return (averageReturn - minimumAcceptableReturn) / downsideDeviation;
     }
 
+    /**
+     * Given a set of returns and the returns of a benchmark over the same periods, calculate the exponentially weighted
+     * moving beta of the returns as of each period, for back-filling a history in one pass. Periods in which either
+     * return is NaN are skipped, carrying the previous beta forward.
+     * @param returns The returns to consider
+     * @param benchmarkReturns The benchmark returns, aligned with the returns
+     * @param alpha The smoothing factor: the weight of each new period, from 0 (exclusive) to 1 (inclusive)
+     * @return An array the same length as the input, holding the beta as of each period. NaN while the benchmark has no
+     * variance.
+     * @throws IllegalArgumentException if the arrays are of different lengths, or alpha is not within (0, 1]
+     * @see ExponentialMovingCovariance
+     */
+    public static double[] getExponentialMovingBetas(double[] returns, double[] benchmarkReturns, double alpha) {
+        if (returns.length != benchmarkReturns.length) {
+            throw new IllegalArgumentException("Mismatched array lengths");
+        }
+        ExponentialMovingCovariance statistics = new ExponentialMovingCovariance(alpha);
+        double[] betas = new double[returns.length];
+        for (int i = 0; i < returns.length; i++) {
+            statistics.add(returns[i], benchmarkReturns[i]);
+            betas[i] = statistics.getBeta().orElse(Double.NaN);
+        }
+        return betas;
+    }
+
+    /**
+     * As {@link FinancialFunctions#getExponentialMovingBetas(double[], double[], double)}, for the exponentially weighted
+     * moving volatility (standard deviation) of a set of returns.
+     * @see ExponentialMovingStatistics
+     */
+    public static double[] getExponentialMovingVolatilities(double[] returns, double alpha) {
+        return IterableFunctions.getExponentialMovingStandardDeviations(returns, alpha);
+    }
+
     /**
      * Given an overall return for some period, find an equivalent return over a different time period, specified by the
      * ratio of the length of the old time period to the length of the new time period.
@@ -136,11 +184,26 @@ public final class FinancialFunctions {
     public static double getAbsoluteEarningPotential(Iterable<Double> prices) {
         double absoluteEarnings = 1d;
 
-        for (Pair<Double, Double> previousAndCurrentPrice : inPairs(prices)) {
-            double previousPrice = previousAndCurrentPrice.first(), price = previousAndCurrentPrice.second();
-            absoluteEarnings *= (1 + abs(getReturn(previousPrice, price)));
+        DoubleZipCursor previousAndCurrentPrice = consecutivePairs(prices);
+        while (previousAndCurrentPrice.advance()) {
+            absoluteEarnings *= (1 + abs(getReturn(previousAndCurrentPrice.first(), previousAndCurrentPrice.second())));
         }
 
         return absoluteEarnings;
     }
+
+    /**
+     * An allocation-free equivalent of {@link IterableFunctions#inPairs(Iterable)} for numbers: a cursor over every
+     * consecutive pair of values, reading the Iterable twice, one step apart.
+     */
+    private static DoubleZipCursor consecutivePairs(Iterable<Double> values) {
+        Iterable<Double> afterFirst = () -> {
+            Iterator<Double> iterator = values.iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+            }
+            return iterator;
+        };
+        return IterableFunctions.doubleZipCursor(values, afterFirst);
+    }
 }
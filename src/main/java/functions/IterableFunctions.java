@@ -16,14 +16,33 @@
 
 package functions;
 
+import types.columns.DoubleColumn;
+import types.cursors.DoubleZipCursor;
+import types.cursors.LongZipCursor;
+import types.cursors.ZipCursor;
+import types.statistics.ExponentialMovingCovariance;
+import types.statistics.ExponentialMovingStatistics;
+import types.statistics.QuantileSketch;
+import types.statistics.StatisticsAccumulator;
 import types.tuples.Pair;
+import types.tuples.Quad;
+import types.tuples.Triple;
+import types.windows.DoubleWindow;
+import types.windows.RollingExtremes;
+import types.windows.RollingStatistics;
+import types.windows.Window;
 
+import java.lang.reflect.Array;
+import java.nio.DoubleBuffer;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.DoubleUnaryOperator;
 import java.util.function.IntFunction;
-
-import static java.lang.Math.pow;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A collection of useful static functions that provide alternate ways of iterating through iterables or using their
@@ -45,57 +64,116 @@ public final class IterableFunctions {
      * @param <T> The Type of the value list. Must be Comparable with itself
      * @param <E> The arbitrary Type of the companion list
      * @return The value and companion lists, both sorted according to the natural order of the value list
+     * @see SortingFunctions#argsort(List)
      */
     public static <T extends Comparable<T>, E> Pair<List<T>, List<E>> sortListsSimultaneously(List<T> valueList, List<E> companionList) {
-        int n = valueList.size();
-        if (n != companionList.size()) {
+        if (valueList.size() != companionList.size()) {
             throw new IllegalArgumentException("Mismatched list lengths");
         }
-        Integer[] indexArray = new Integer[n];
-        for (int i = 0; i < n; i++) {
-            indexArray[i] = i;
+        int[] permutation = SortingFunctions.argsort(valueList);
+
+        List<T> sortedValues = SortingFunctions.permuted(valueList, permutation);
+        List<E> sortedCompanions = SortingFunctions.permuted(companionList, permutation);
+
+        return new Pair<>(sortedValues, sortedCompanions);
+    }
+
+    /**
+     * Sorts any number of equal-length columns simultaneously, using the natural ordering of a key column to arrange
+     * them all. The key column is sorted only once, in parallel for large inputs, and the resulting permutation is then
+     * applied to each companion column in parallel. This is much cheaper than calling sortListsSimultaneously once per
+     * companion column.
+     * @param keyColumn The list of values to base the sorting on
+     * @param companionColumns Any number of companion lists to be sorted alongside
+     * @param <T> The Type of the key column. Must be Comparable with itself
+     * @return The sorted key column, and a list of the sorted companion columns in the order they were given
+     * @throws IllegalArgumentException if any companion column is not the same length as the key column
+     * @see SortingFunctions#parallelArgsort(List)
+     */
+    public static <T extends Comparable<? super T>> Pair<List<T>, List<List<?>>> sortColumnsSimultaneously(List<T> keyColumn, List<?>... companionColumns) {
+        int n = keyColumn.size();
+        for (List<?> companionColumn : companionColumns) {
+            if (companionColumn.size() != n) {
+                throw new IllegalArgumentException("Mismatched list lengths");
+            }
         }
-        Arrays.sort(indexArray, Comparator.comparing(valueList::get));
+        int[] permutation = SortingFunctions.parallelArgsort(keyColumn);
+
+        List<?>[] sortedCompanions = new List<?>[companionColumns.length];
+        IntStream.range(0, companionColumns.length).parallel()
+                .forEach(i -> sortedCompanions[i] = SortingFunctions.permuted(companionColumns[i], permutation));
 
-        List<T> sortedValues = new ArrayList<>(n);
-        List<E> sortedCompanions = new ArrayList<>(n);
+        return new Pair<>(SortingFunctions.permuted(keyColumn, permutation), Arrays.asList(sortedCompanions));
+    }
 
-        for (Integer index : indexArray) {
-            sortedValues.add(valueList.get(index));
-            sortedCompanions.add(companionList.get(index));
+    /**
+     * Sorts any number of equal-length arrays simultaneously and in place, using the order of a key column to arrange
+     * them all. The key column is sorted only once, in parallel for large inputs, and the resulting permutation is then
+     * applied to each companion column in parallel.
+     * @param keyColumn The values to base the sorting on, ordered as by {@link Double#compare(double, double)}
+     * @param companionColumns Any number of double[], long[], int[] or Object arrays to be sorted alongside
+     * @throws IllegalArgumentException if any companion column is not an array of a supported Type, is not the same
+     * length as the key column, or is the same array as the key column or another companion column
+     * @see SortingFunctions#permuteInPlace(Object, int[])
+     */
+    public static void sortColumnsSimultaneously(double[] keyColumn, Object... companionColumns) {
+        Set<Object> columns = Collections.newSetFromMap(new IdentityHashMap<>());
+        columns.add(keyColumn);
+        for (Object companionColumn : companionColumns) {
+            if (!columns.add(companionColumn)) {
+                throw new IllegalArgumentException("Columns must be distinct arrays");
+            }
+            if (!(companionColumn instanceof double[] || companionColumn instanceof long[] || companionColumn instanceof int[] || companionColumn instanceof Object[])) {
+                throw new IllegalArgumentException("Unsupported column Type");
+            }
+            if (Array.getLength(companionColumn) != keyColumn.length) {
+                throw new IllegalArgumentException("Mismatched column lengths");
+            }
         }
+        int[] permutation = SortingFunctions.parallelArgsort(keyColumn);
 
-        return new Pair<>(sortedValues, sortedCompanions);
+        IntStream.range(-1, companionColumns.length).parallel()
+                .forEach(i -> SortingFunctions.permuteInPlace(i < 0 ? keyColumn : companionColumns[i], permutation));
     }
 
 
     /**
-     * A function to make iterating through lists in reverse convenient and compact, with minimal boilerplate.
+     * A function to make iterating through lists in reverse convenient and compact, with minimal boilerplate. The
+     * returned Iterable is a view of the original list, so nothing is copied. Each Iterator walks a ListIterator
+     * backwards from the end of the list, so it fails fast exactly as the list's own iterators do: structurally
+     * modifying the original list while iterating (even an add followed by a remove) will cause a
+     * ConcurrentModificationException, while replacing elements with set is not detected. Use reversedSnapshot if
+     * modifying the list while iterating is needed.
      * @param original The list we want to be able to iterate over in reverse
      * @return An iterable that represents a reversed version of the original list
+     * @see IterableFunctions#reversedSnapshot(List)
      */
     public static <T> Iterable<T> reversed(List<T> original) {
-        return () -> {
-            final List<T> finalCopy = List.copyOf(original);
-            return new Iterator<>() {
-                int index = finalCopy.size()-1;
-                @Override
-                public boolean hasNext() {
-                    return index >= 0;
-                }
+        return () -> new Iterator<>() {
+            final ListIterator<T> listIterator = original.listIterator(original.size());
 
-                @Override
-                public T next() {
-                    if (hasNext()) {
-                        return finalCopy.get(index--);
-                    } else {
-                        throw new NoSuchElementException();
-                    }
-                }
-            };
+            @Override
+            public boolean hasNext() {
+                return listIterator.hasPrevious();
+            }
+
+            @Override
+            public T next() {
+                return listIterator.previous();
+            }
         };
     }
 
+    /**
+     * As {@link IterableFunctions#reversed(List)}, except that each new Iterator takes a copy of the original list
+     * first. The original list may then be freely modified while iterating, at the cost of copying it every time.
+     * @param original The list we want to be able to iterate over in reverse
+     * @return An iterable that represents a reversed version of the original list, as it was when iteration began
+     */
+    public static <T> Iterable<T> reversedSnapshot(List<T> original) {
+        return () -> reversed(new ArrayList<>(original)).iterator();
+    }
+
 
     /**
      * <p>
@@ -196,6 +274,263 @@ public final class IterableFunctions {
         };
     }
 
+    /**
+     * As {@link IterableFunctions#zipped(Iterable, Iterable)}, but zipping three Iterables into Triples.
+     * @return an Iterable of Triples of corresponding values, with the length of the shortest input
+     */
+    public static <A, B, C> Iterable<Triple<A, B, C>> zipped(Iterable<A> firstIterable, Iterable<B> secondIterable, Iterable<C> thirdIterable) {
+        return () -> new Iterator<>() {
+            final Iterator<A> iteratorA = firstIterable.iterator();
+            final Iterator<B> iteratorB = secondIterable.iterator();
+            final Iterator<C> iteratorC = thirdIterable.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iteratorA.hasNext() && iteratorB.hasNext() && iteratorC.hasNext();
+            }
+
+            @Override
+            public Triple<A, B, C> next() {
+                return new Triple<>(iteratorA.next(), iteratorB.next(), iteratorC.next());
+            }
+        };
+    }
+
+    /**
+     * As {@link IterableFunctions#zipped(Iterable, Iterable)}, but zipping four Iterables into Quads.
+     * @return an Iterable of Quads of corresponding values, with the length of the shortest input
+     */
+    public static <A, B, C, D> Iterable<Quad<A, B, C, D>> zipped(Iterable<A> firstIterable, Iterable<B> secondIterable, Iterable<C> thirdIterable, Iterable<D> fourthIterable) {
+        return () -> new Iterator<>() {
+            final Iterator<A> iteratorA = firstIterable.iterator();
+            final Iterator<B> iteratorB = secondIterable.iterator();
+            final Iterator<C> iteratorC = thirdIterable.iterator();
+            final Iterator<D> iteratorD = fourthIterable.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iteratorA.hasNext() && iteratorB.hasNext() && iteratorC.hasNext() && iteratorD.hasNext();
+            }
+
+            @Override
+            public Quad<A, B, C, D> next() {
+                return new Quad<>(iteratorA.next(), iteratorB.next(), iteratorC.next(), iteratorD.next());
+            }
+        };
+    }
+
+    /**
+     * Zips any number of numeric Iterables column-wise into primitive arrays, without creating any tuples along the
+     * way. The values at index i of each input are written to index offset + i of the corresponding destination array.
+     * Stops at the end of the shortest input, or when the shortest destination array is full.
+     * @param destinations One destination array per input, e.g. {@code new double[4][n]} for four inputs
+     * @param offset The index in the destination arrays at which to start writing
+     * @param columns The numeric Iterables to zip
+     * @return The number of values written to each destination array
+     * @throws IllegalArgumentException if there are not exactly as many destinations as inputs
+     */
+    @SafeVarargs
+    public static int zipIntoArrays(double[][] destinations, int offset, Iterable<? extends Number>... columns) {
+        if (destinations.length != columns.length) {
+            throw new IllegalArgumentException("Mismatched number of columns and destinations");
+        }
+        int capacity = Integer.MAX_VALUE;
+        for (double[] destination : destinations) {
+            capacity = Math.min(capacity, destination.length - offset);
+        }
+        if (columns.length == 0 || capacity <= 0) {
+            return 0;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Iterator<? extends Number>[] iterators = new Iterator[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            iterators[c] = columns[c].iterator();
+        }
+        int written = 0;
+        while (written < capacity && allHaveNext(iterators)) {
+            int index = offset + written++;
+            for (int c = 0; c < iterators.length; c++) {
+                destinations[c][index] = iterators[c].next().doubleValue();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Zips any number of numeric Iterables column-wise into new primitive arrays, one per input. If every input is a
+     * Collection, the arrays are sized exactly up front; otherwise they grow as needed and are trimmed at the end.
+     * @param columns The numeric Iterables to zip
+     * @return One array per input, each with the length of the shortest input
+     * @see IterableFunctions#zipIntoArrays(double[][], int, Iterable[])
+     */
+    @SafeVarargs
+    public static double[][] zipToArrays(Iterable<? extends Number>... columns) {
+        int knownSize = Integer.MAX_VALUE;
+        for (Iterable<? extends Number> column : columns) {
+            knownSize = column instanceof Collection<?> collection ? Math.min(knownSize, collection.size()) : -1;
+            if (knownSize < 0) {
+                break;
+            }
+        }
+        if (columns.length == 0) {
+            return new double[0][];
+        }
+        if (knownSize >= 0) {
+            double[][] arrays = new double[columns.length][knownSize];
+            zipIntoArrays(arrays, 0, columns);
+            return arrays;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Iterator<? extends Number>[] iterators = new Iterator[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            iterators[c] = columns[c].iterator();
+        }
+        double[][] arrays = new double[columns.length][16];
+        int size = 0;
+        while (allHaveNext(iterators)) {
+            if (size == arrays[0].length) {
+                for (int c = 0; c < arrays.length; c++) {
+                    arrays[c] = Arrays.copyOf(arrays[c], size * 2);
+                }
+            }
+            for (int c = 0; c < iterators.length; c++) {
+                arrays[c][size] = iterators[c].next().doubleValue();
+            }
+            size++;
+        }
+        for (int c = 0; c < arrays.length; c++) {
+            arrays[c] = Arrays.copyOf(arrays[c], size);
+        }
+        return arrays;
+    }
+
+    private static boolean allHaveNext(Iterator<?>[] iterators) {
+        for (Iterator<?> iterator : iterators) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * As {@link IterableFunctions#zipped(Iterable, Iterable)}, but as a Stream. When both inputs are RandomAccess lists,
+     * the Stream is SIZED and SUBSIZED and splits both lists in lockstep, so it parallelises well with
+     * {@link Stream#parallel()}. Otherwise, it falls back to sequentially iterating the zipped Iterable.
+     * @param firstIterable the Iterable whose values will appear first in the resulting Pairs
+     * @param secondIterable the Iterable whose values will appear second in the resulting Pairs
+     * @return a sequential Stream of Pairs of corresponding values, with the length of the shorter input
+     */
+    public static <T, E> Stream<Pair<T, E>> zippedStream(Iterable<T> firstIterable, Iterable<E> secondIterable) {
+        if (firstIterable instanceof List<T> firstList && firstList instanceof RandomAccess
+                && secondIterable instanceof List<E> secondList && secondList instanceof RandomAccess) {
+            int size = Math.min(firstList.size(), secondList.size());
+            return StreamSupport.stream(new ZippedSpliterator<>(firstList, secondList, 0, size), false);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(zipped(firstIterable, secondIterable).iterator(), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * As {@link IterableFunctions#zippedStream(Iterable, Iterable)}, for arrays. Always splittable.
+     */
+    public static <T, E> Stream<Pair<T, E>> zippedStream(T[] firstArray, E[] secondArray) {
+        return zippedStream(Arrays.asList(firstArray), Arrays.asList(secondArray));
+    }
+
+    /**
+     * A Spliterator over the same-index pairs of two RandomAccess lists, within some range of indices. Splits both
+     * lists at the same index, so each half still lines up.
+     */
+    private static final class ZippedSpliterator<T, E> implements Spliterator<Pair<T, E>> {
+        private final List<T> firstList;
+        private final List<E> secondList;
+        private int index;
+        private final int end;
+
+        private ZippedSpliterator(List<T> firstList, List<E> secondList, int index, int end) {
+            this.firstList = firstList;
+            this.secondList = secondList;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Pair<T, E>> action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(new Pair<>(firstList.get(index), secondList.get(index)));
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Pair<T, E>> action) {
+            for (; index < end; index++) {
+                action.accept(new Pair<>(firstList.get(index), secondList.get(index)));
+            }
+        }
+
+        @Override
+        public Spliterator<Pair<T, E>> trySplit() {
+            int mid = (index + end) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Spliterator<Pair<T, E>> prefix = new ZippedSpliterator<>(firstList, secondList, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+    /**
+     * An allocation-free alternative to {@link IterableFunctions#zipped(Iterable, Iterable)} for hot loops. Instead of
+     * a new Pair per element, returns a single cursor that is advanced in place.
+     * @param firstIterable the Iterable whose values the cursor will return from first()
+     * @param secondIterable the Iterable whose values the cursor will return from second()
+     * @return a cursor over the same-index values of the two Iterables
+     * @see ZipCursor
+     */
+    public static <T, E> ZipCursor<T, E> zipCursor(Iterable<T> firstIterable, Iterable<E> secondIterable) {
+        return new ZipCursor<>(firstIterable, secondIterable);
+    }
+
+    /**
+     * As {@link IterableFunctions#zipCursor(Iterable, Iterable)}, but unboxes both inputs to primitive doubles.
+     * @see DoubleZipCursor
+     */
+    public static DoubleZipCursor doubleZipCursor(Iterable<? extends Number> firstIterable, Iterable<? extends Number> secondIterable) {
+        return new DoubleZipCursor(firstIterable, secondIterable);
+    }
+
+    /**
+     * As {@link IterableFunctions#zipCursor(Iterable, Iterable)}, for a pair of double arrays.
+     * @see DoubleZipCursor
+     */
+    public static DoubleZipCursor zipCursor(double[] firstArray, double[] secondArray) {
+        return new DoubleZipCursor(firstArray, secondArray);
+    }
+
+    /**
+     * As {@link IterableFunctions#zipCursor(Iterable, Iterable)}, for a pair of long arrays.
+     * @see LongZipCursor
+     */
+    public static LongZipCursor zipCursor(long[] firstArray, long[] secondArray) {
+        return new LongZipCursor(firstArray, secondArray);
+    }
+
     /**
      * Given a zipped iterable (as produced by the zipped() function, for instance), unzip it into two separate lists.
      * @param zippedSet An iterable over a set of pairs
@@ -203,11 +538,13 @@ public final class IterableFunctions {
      * @param <E> The type of the second item in each pair
      * @return A pair of lists, the first corresponding to the first item in each pair in the input, the second to the
      * second. These lists will each contain every one of their respective pair items, in the same order as the input.
+     * If the input is a Collection, the lists are sized to fit up front.
      * @see IterableFunctions#zipped(Iterable, Iterable)
      */
     public static <T, E> Pair<List<T>, List<E>> unzipped(Iterable<Pair<T, E>> zippedSet) {
-        List<T> tList = new ArrayList<>();
-        List<E> eList = new ArrayList<>();
+        int expectedSize = zippedSet instanceof Collection<?> collection ? collection.size() : 10;
+        List<T> tList = new ArrayList<>(expectedSize);
+        List<E> eList = new ArrayList<>(expectedSize);
 
         for (Pair<T, E> pair : zippedSet) {
             tList.add(pair.first());
@@ -216,6 +553,38 @@ public final class IterableFunctions {
         return new Pair<>(tList, eList);
     }
 
+    /**
+     * Given a zipped iterable of numbers, unzip it into two primitive arrays. Avoids keeping every value boxed, which for
+     * long series roughly halves the memory needed. If the input is a Collection, the arrays are sized exactly up front;
+     * otherwise they grow as needed and are trimmed at the end.
+     * @param zippedSet An iterable over a set of pairs of numbers
+     * @return A pair of arrays, the first holding the first number in each pair in the input, the second the second
+     * @see IterableFunctions#unzipped(Iterable)
+     */
+    public static Pair<double[], double[]> unzippedToArrays(Iterable<? extends Pair<? extends Number, ? extends Number>> zippedSet) {
+        int capacity = zippedSet instanceof Collection<?> collection ? collection.size() : 16;
+        double[] firstArray = new double[capacity];
+        double[] secondArray = new double[capacity];
+
+        int size = 0;
+        for (Pair<? extends Number, ? extends Number> pair : zippedSet) {
+            if (size == firstArray.length) {
+                int newCapacity = Math.max(16, size * 2);
+                firstArray = Arrays.copyOf(firstArray, newCapacity);
+                secondArray = Arrays.copyOf(secondArray, newCapacity);
+            }
+            firstArray[size] = pair.first().doubleValue();
+            secondArray[size] = pair.second().doubleValue();
+            size++;
+        }
+
+        if (size != firstArray.length) {
+            firstArray = Arrays.copyOf(firstArray, size);
+            secondArray = Arrays.copyOf(secondArray, size);
+        }
+        return new Pair<>(firstArray, secondArray);
+    }
+
     /**
      * A function that allows for easy two-at-a-time iteration over any Iterable. If the number of items in the input
      * Iterable is odd, the last Pair returned by generated Iterators will have an empty second value.
@@ -312,93 +681,663 @@ public final class IterableFunctions {
     }
 
     /**
-     * Creates an Iterable that, when generating a new Iterator, immediately feeds the first item to the given Consumer,
-     * and subsequently returns the second item on the first call to next(). Will usually immediately throw a
-     * NoSuchElementException if given an empty Iterable. Intended for use with enhanced for loops.
-     * @param original Iterable to take items from
-     * @param whatToDoWithFirstItem A consumer for the first item
-     * @return an Iterable identical to the input, except that it always immediately feeds its first item to the given
-     * Consumer when it generates a new Iterator, and proceeds from the second item
+     * A generalisation of {@link IterableFunctions#inPairs(Iterable)} to windows of any size. Iterating through the
+     * returned Iterable gives every run of windowSize consecutive items in the original, oldest first. If the input has
+     * fewer than windowSize items, will return an empty iterable.
+     * <p>
+     * To avoid allocating per step, each Iterator reuses a single {@link Window}, sliding it along by one item on each
+     * call to next(). A window returned by next() is therefore only valid until the following call; use
+     * {@link Window#copy()} to keep its contents any longer.
+     * </p>
+     * @param original The original Iterable
+     * @param windowSize The number of items in each window
+     * @param <T> The Type being iterated
+     * @return an Iterable over every run of windowSize consecutive items in the original
+     * @throws IllegalArgumentException if windowSize is less than 1
      */
-    public static <T> Iterable<T> butFirst(Iterable<T> original, Consumer<T> whatToDoWithFirstItem) {
-        return () -> {
-            Iterator<T> iterator = original.iterator();
-            whatToDoWithFirstItem.accept(iterator.next());
-
-            return new Iterator<>() {
-                @Override
-                public boolean hasNext() {
-                    return iterator.hasNext();
+    public static <T> Iterable<Window<T>> slidingWindows(Iterable<T> original, int windowSize) {
+        checkWindowSize(windowSize);
+        return () -> new Iterator<>() {
+            private final Iterator<T> iterator = original.iterator();
+            private final Window<T> window = new Window<>(windowSize);
+            {
+                while (window.size() < windowSize - 1 && iterator.hasNext()) {
+                    window.push(iterator.next());
                 }
+            }
 
-                @Override
-                public T next() {
-                    return iterator.next();
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Window<T> next() {
+                window.push(iterator.next());
+                return window;
+            }
+        };
+    }
+
+    /**
+     * A generalisation of {@link IterableFunctions#twoAtATime(Iterable)} to windows of any size. Iterating through the
+     * returned Iterable gives consecutive, non-overlapping runs of windowSize items from the original. If the number of
+     * items in the original is not a multiple of windowSize, the last window will hold only the leftover items.
+     * <p>
+     * As with slidingWindows, each Iterator reuses a single {@link Window}, so a window returned by next() is only valid
+     * until the following call.
+     * </p>
+     * @param original The original Iterable
+     * @param windowSize The number of items in each window
+     * @param <T> The Type being iterated
+     * @return an Iterable over consecutive, non-overlapping runs of windowSize items in the original
+     * @throws IllegalArgumentException if windowSize is less than 1
+     */
+    public static <T> Iterable<Window<T>> tumblingWindows(Iterable<T> original, int windowSize) {
+        checkWindowSize(windowSize);
+        return () -> new Iterator<>() {
+            private final Iterator<T> iterator = original.iterator();
+            private final Window<T> window = new Window<>(windowSize);
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Window<T> next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
                 }
-            };
+                window.clear();
+                while (!window.isFull() && iterator.hasNext()) {
+                    window.push(iterator.next());
+                }
+                return window;
+            }
         };
     }
 
     /**
-     * A simple function for finding the sum of an Iterable.
-     * @param numbers An Iterable of numbers to be summed
-     * @return The sum of the numbers in the given Iterable
+     * As {@link IterableFunctions#slidingWindows(Iterable, int)}, but over primitive doubles.
+     * @see DoubleWindow
      */
-    public static <T extends Number> double getSum(Iterable<T> numbers) {
-        double sum = 0d;
-        for (T number : numbers) {
-            sum += number.doubleValue();
-        }
-        return sum;
+    public static Iterable<DoubleWindow> slidingWindows(double[] values, int windowSize) {
+        checkWindowSize(windowSize);
+        return () -> slidingWindows(Arrays.stream(values).iterator(), windowSize);
     }
 
     /**
-     * Simple brute-force iteration method to find the minimum of a set of numbers
-     * @return An Optional number of the same Type as those given. Will be empty if the input is empty.
+     * As {@link IterableFunctions#slidingWindows(Iterable, int)}, but unboxing the numbers into primitive doubles.
+     * @see DoubleWindow
      */
-    public static <T extends Number> Optional<T> getMinimum(Iterable<T> numbers) {
-        T minimum = null;
-        for (T number : numbers) {
-            if (minimum == null) {
-                minimum = number;
-            } else if (number.doubleValue() < minimum.doubleValue()) {
-                minimum = number;
-            }
-        }
-        return Optional.ofNullable(minimum);
+    public static Iterable<DoubleWindow> doubleSlidingWindows(Iterable<? extends Number> numbers, int windowSize) {
+        checkWindowSize(windowSize);
+        return () -> slidingWindows(unboxingIterator(numbers.iterator()), windowSize);
     }
 
     /**
-     * Simple brute-force iteration method to find the maximum of a set of numbers
-     * @return An Optional number of the same Type as those given. Will be empty if the input is empty.
+     * As {@link IterableFunctions#tumblingWindows(Iterable, int)}, but over primitive doubles.
+     * @see DoubleWindow
      */
-    public static <T extends Number> Optional<T> getMaximum(Iterable<T> numbers) {
-        T maximum = null;
-        for (T number : numbers) {
-            if (maximum == null) {
-                maximum = number;
-            } else if (number.doubleValue() > maximum.doubleValue()) {
-                maximum = number;
-            }
-        }
-        return Optional.ofNullable(maximum);
+    public static Iterable<DoubleWindow> tumblingWindows(double[] values, int windowSize) {
+        checkWindowSize(windowSize);
+        return () -> tumblingWindows(Arrays.stream(values).iterator(), windowSize);
     }
 
     /**
-     * Two-at-a-time comparison method to find the minimum and maximum of a set of numbers simultaneously.
-     * @return an Optional Pair with the minimum first and the maximum second. Will be empty if the input is empty.
+     * As {@link IterableFunctions#tumblingWindows(Iterable, int)}, but unboxing the numbers into primitive doubles.
+     * @see DoubleWindow
      */
-    public static <T extends Number> Optional<Pair<T, T>> getMinimumAndMaximum(Iterable<T> numbers) {
-        T   minimum = null,
-            maximum = null;
+    public static Iterable<DoubleWindow> doubleTumblingWindows(Iterable<? extends Number> numbers, int windowSize) {
+        checkWindowSize(windowSize);
+        return () -> tumblingWindows(unboxingIterator(numbers.iterator()), windowSize);
+    }
 
-        for (Pair<T, Optional<T>> pair : twoAtATime(numbers)) {
-            T first = pair.first();
-            double doubleFirst = first.doubleValue();
+    /**
+     * Calculates the mean of every run of windowSize consecutive numbers in a double array, i.e. a simple moving
+     * average, in a single pass. Each step updates the mean in constant time rather than re-averaging the whole window.
+     * @return An array holding the mean of each full window, in order. Will be empty if the input has fewer than
+     * windowSize numbers.
+     * @throws IllegalArgumentException if windowSize is less than 1
+     * @see RollingStatistics
+     */
+    public static double[] getRollingArithmeticMeans(double[] numbers, int windowSize) {
+        return rollingStatistics(numbers, windowSize, statistics -> statistics.getArithmeticMean().orElseThrow());
+    }
 
-            if (minimum == null) {
-                minimum = first;
-                maximum = first;
+    /**
+     * As {@link IterableFunctions#getRollingArithmeticMeans(double[], int)}, for the sample standard deviation of each
+     * window.
+     */
+    public static double[] getRollingSampleStandardDeviations(double[] numbers, int windowSize) {
+        return rollingStatistics(numbers, windowSize, statistics -> statistics.getSampleStandardDeviation().orElseThrow());
+    }
+
+    /**
+     * As {@link IterableFunctions#getRollingArithmeticMeans(double[], int)}, for the population standard deviation of
+     * each window.
+     */
+    public static double[] getRollingPopulationStandardDeviations(double[] numbers, int windowSize) {
+        return rollingStatistics(numbers, windowSize, statistics -> statistics.getPopulationStandardDeviation().orElseThrow());
+    }
+
+    /**
+     * As {@link IterableFunctions#getRollingArithmeticMeans(double[], int)}, for the minimum of each window. NaNs are
+     * skipped; a window of nothing but NaNs has a minimum of NaN.
+     * @see RollingExtremes
+     */
+    public static double[] getRollingMinima(double[] numbers, int windowSize) {
+        return rollingExtremes(numbers, windowSize, extremes -> extremes.getMinimum().orElse(Double.NaN));
+    }
+
+    /**
+     * As {@link IterableFunctions#getRollingMinima(double[], int)}, for the maximum of each window.
+     */
+    public static double[] getRollingMaxima(double[] numbers, int windowSize) {
+        return rollingExtremes(numbers, windowSize, extremes -> extremes.getMaximum().orElse(Double.NaN));
+    }
+
+    /**
+     * Calculates the exponentially weighted moving average of a double array as of each number in turn, for
+     * back-filling a history in one pass. NaNs are skipped, carrying the previous average forward.
+     * @param alpha The smoothing factor: the weight of each new number, from 0 (exclusive) to 1 (inclusive)
+     * @return An array the same length as the input, holding the average as of each number. NaN up to the first number
+     * that is not NaN.
+     * @throws IllegalArgumentException if alpha is not within (0, 1]
+     * @see ExponentialMovingStatistics
+     */
+    public static double[] getExponentialMovingAverages(double[] numbers, double alpha) {
+        ExponentialMovingStatistics statistics = new ExponentialMovingStatistics(alpha);
+        double[] averages = new double[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            statistics.add(numbers[i]);
+            averages[i] = statistics.getMean().orElse(Double.NaN);
+        }
+        return averages;
+    }
+
+    /**
+     * As {@link IterableFunctions#getExponentialMovingAverages(double[], double)}, for the exponentially weighted moving
+     * standard deviation.
+     */
+    public static double[] getExponentialMovingStandardDeviations(double[] numbers, double alpha) {
+        ExponentialMovingStatistics statistics = new ExponentialMovingStatistics(alpha);
+        double[] deviations = new double[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            statistics.add(numbers[i]);
+            deviations[i] = statistics.getStandardDeviation().orElse(Double.NaN);
+        }
+        return deviations;
+    }
+
+    /**
+     * As {@link IterableFunctions#getExponentialMovingAverages(double[], double)}, for the exponentially weighted moving
+     * covariance of two aligned arrays. Pairs containing a NaN are skipped.
+     * @throws IllegalArgumentException if the arrays are of different lengths
+     * @see ExponentialMovingCovariance
+     */
+    public static double[] getExponentialMovingCovariances(double[] first, double[] second, double alpha) {
+        if (first.length != second.length) {
+            throw new IllegalArgumentException("Mismatched array lengths");
+        }
+        ExponentialMovingCovariance statistics = new ExponentialMovingCovariance(alpha);
+        double[] covariances = new double[first.length];
+        for (int i = 0; i < first.length; i++) {
+            statistics.add(first[i], second[i]);
+            covariances[i] = statistics.getCovariance().orElse(Double.NaN);
+        }
+        return covariances;
+    }
+
+    private static double[] rollingStatistics(double[] numbers, int windowSize, ToDoubleFunction<RollingStatistics> statistic) {
+        checkWindowSize(windowSize);
+        double[] results = new double[Math.max(0, numbers.length - windowSize + 1)];
+        RollingStatistics statistics = new RollingStatistics(windowSize);
+        for (int i = 0; i < numbers.length; i++) {
+            statistics.push(numbers[i]);
+            if (i >= windowSize - 1) {
+                results[i - windowSize + 1] = statistic.applyAsDouble(statistics);
+            }
+        }
+        return results;
+    }
+
+    private static double[] rollingExtremes(double[] numbers, int windowSize, ToDoubleFunction<RollingExtremes> extreme) {
+        checkWindowSize(windowSize);
+        double[] results = new double[Math.max(0, numbers.length - windowSize + 1)];
+        RollingExtremes extremes = new RollingExtremes(windowSize);
+        for (int i = 0; i < numbers.length; i++) {
+            extremes.push(numbers[i]);
+            if (i >= windowSize - 1) {
+                results[i - windowSize + 1] = extreme.applyAsDouble(extremes);
+            }
+        }
+        return results;
+    }
+
+    private static Iterator<DoubleWindow> slidingWindows(PrimitiveIterator.OfDouble iterator, int windowSize) {
+        DoubleWindow window = new DoubleWindow(windowSize);
+        while (window.size() < windowSize - 1 && iterator.hasNext()) {
+            window.push(iterator.nextDouble());
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public DoubleWindow next() {
+                window.push(iterator.nextDouble());
+                return window;
+            }
+        };
+    }
+
+    private static Iterator<DoubleWindow> tumblingWindows(PrimitiveIterator.OfDouble iterator, int windowSize) {
+        DoubleWindow window = new DoubleWindow(windowSize);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public DoubleWindow next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                window.clear();
+                while (!window.isFull() && iterator.hasNext()) {
+                    window.push(iterator.nextDouble());
+                }
+                return window;
+            }
+        };
+    }
+
+    private static PrimitiveIterator.OfDouble unboxingIterator(Iterator<? extends Number> iterator) {
+        return new PrimitiveIterator.OfDouble() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public double nextDouble() {
+                return iterator.next().doubleValue();
+            }
+        };
+    }
+
+    private static void checkWindowSize(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1");
+        }
+    }
+
+    /**
+     * Creates an Iterable that, when generating a new Iterator, immediately feeds the first item to the given Consumer,
+     * and subsequently returns the second item on the first call to next(). Will usually immediately throw a
+     * NoSuchElementException if given an empty Iterable. Intended for use with enhanced for loops.
+     * @param original Iterable to take items from
+     * @param whatToDoWithFirstItem A consumer for the first item
+     * @return an Iterable identical to the input, except that it always immediately feeds its first item to the given
+     * Consumer when it generates a new Iterator, and proceeds from the second item
+     */
+    public static <T> Iterable<T> butFirst(Iterable<T> original, Consumer<T> whatToDoWithFirstItem) {
+        return () -> {
+            Iterator<T> iterator = original.iterator();
+            whatToDoWithFirstItem.accept(iterator.next());
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return iterator.next();
+                }
+            };
+        };
+    }
+
+    /**
+     * A simple function for finding the sum of an Iterable.
+     * @param numbers An Iterable of numbers to be summed
+     * @return The sum of the numbers in the given Iterable
+     */
+    public static <T extends Number> double getSum(Iterable<T> numbers) {
+        double sum = 0d;
+        for (T number : numbers) {
+            sum += number.doubleValue();
+        }
+        return sum;
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(Iterable)}, for a double array. Sums with several independent accumulators, or
+     * SIMD lanes where available, so the result may differ in the last few bits from summing strictly in order.
+     */
+    public static double getSum(double[] numbers) {
+        return getSum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(double[])}, for the slice of a double array from fromIndex (inclusive) to
+     * toIndex (exclusive). Uses SIMD kernels where available.
+     * @see NumericKernels
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static double getSum(double[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        return NumericKernels.INSTANCE.sum(numbers, fromIndex, toIndex);
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(double[])}, for the remaining values of a DoubleBuffer, i.e. those between its
+     * position and its limit. The position of the buffer is not changed.
+     */
+    public static double getSum(DoubleBuffer numbers) {
+        if (numbers.hasArray()) {
+            int offset = numbers.arrayOffset();
+            return getSum(numbers.array(), offset + numbers.position(), offset + numbers.limit());
+        }
+        double sum0 = 0d, sum1 = 0d, sum2 = 0d, sum3 = 0d;
+        int i = numbers.position(), toIndex = numbers.limit();
+        for (; i <= toIndex - 4; i += 4) {
+            sum0 += numbers.get(i);
+            sum1 += numbers.get(i + 1);
+            sum2 += numbers.get(i + 2);
+            sum3 += numbers.get(i + 3);
+        }
+        for (; i < toIndex; i++) {
+            sum0 += numbers.get(i);
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(Iterable)}, for an int array. Sums exactly, as a long.
+     */
+    public static double getSum(int[] numbers) {
+        return getSum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(int[])}, for the slice of an int array from fromIndex (inclusive) to toIndex
+     * (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static double getSum(int[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        long sum = 0L;
+        for (int i = fromIndex; i < toIndex; i++) {
+            sum += numbers[i];
+        }
+        return sum;
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(double[])}, for a long array.
+     */
+    public static double getSum(long[] numbers) {
+        return getSum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(long[])}, for the slice of a long array from fromIndex (inclusive) to toIndex
+     * (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static double getSum(long[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        double sum0 = 0d, sum1 = 0d, sum2 = 0d, sum3 = 0d;
+        int i = fromIndex;
+        for (; i <= toIndex - 4; i += 4) {
+            sum0 += numbers[i];
+            sum1 += numbers[i + 1];
+            sum2 += numbers[i + 2];
+            sum3 += numbers[i + 3];
+        }
+        for (; i < toIndex; i++) {
+            sum0 += numbers[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * Simple brute-force iteration method to find the minimum of a set of numbers
+     * @return An Optional number of the same Type as those given. Will be empty if the input is empty.
+     */
+    public static <T extends Number> Optional<T> getMinimum(Iterable<T> numbers) {
+        T minimum = null;
+        for (T number : numbers) {
+            if (minimum == null) {
+                minimum = number;
+            } else if (number.doubleValue() < minimum.doubleValue()) {
+                minimum = number;
+            }
+        }
+        return Optional.ofNullable(minimum);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(Iterable)}, for a double array.
+     * @return An Optional Double. Will be empty if the input is empty.
+     */
+    public static Optional<Double> getMinimum(double[] numbers) {
+        return getMinimum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(double[])}, for the slice of a double array from fromIndex (inclusive) to
+     * toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Double> getMinimum(double[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        if (fromIndex == toIndex) {
+            return Optional.empty();
+        }
+        return Optional.of(NumericKernels.INSTANCE.minimum(numbers, fromIndex, toIndex));
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(double[])}, for the remaining values of a DoubleBuffer. The position of
+     * the buffer is not changed.
+     */
+    public static Optional<Double> getMinimum(DoubleBuffer numbers) {
+        if (numbers.hasArray()) {
+            int offset = numbers.arrayOffset();
+            return getMinimum(numbers.array(), offset + numbers.position(), offset + numbers.limit());
+        }
+        if (!numbers.hasRemaining()) {
+            return Optional.empty();
+        }
+        double minimum = numbers.get(numbers.position());
+        for (int i = numbers.position() + 1; i < numbers.limit(); i++) {
+            double number = numbers.get(i);
+            minimum = number < minimum ? number : minimum;
+        }
+        return Optional.of(minimum);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(Iterable)}, for an int array.
+     * @return An Optional Integer. Will be empty if the input is empty.
+     */
+    public static Optional<Integer> getMinimum(int[] numbers) {
+        return getMinimum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(int[])}, for the slice of an int array from fromIndex (inclusive) to
+     * toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Integer> getMinimum(int[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        if (fromIndex == toIndex) {
+            return Optional.empty();
+        }
+        int minimum = numbers[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            minimum = Math.min(minimum, numbers[i]);
+        }
+        return Optional.of(minimum);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(Iterable)}, for a long array.
+     * @return An Optional Long. Will be empty if the input is empty.
+     */
+    public static Optional<Long> getMinimum(long[] numbers) {
+        return getMinimum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(long[])}, for the slice of a long array from fromIndex (inclusive) to
+     * toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Long> getMinimum(long[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        if (fromIndex == toIndex) {
+            return Optional.empty();
+        }
+        long minimum = numbers[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            minimum = Math.min(minimum, numbers[i]);
+        }
+        return Optional.of(minimum);
+    }
+
+    /**
+     * Simple brute-force iteration method to find the maximum of a set of numbers
+     * @return An Optional number of the same Type as those given. Will be empty if the input is empty.
+     */
+    public static <T extends Number> Optional<T> getMaximum(Iterable<T> numbers) {
+        T maximum = null;
+        for (T number : numbers) {
+            if (maximum == null) {
+                maximum = number;
+            } else if (number.doubleValue() > maximum.doubleValue()) {
+                maximum = number;
+            }
+        }
+        return Optional.ofNullable(maximum);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMaximum(Iterable)}, for a double array.
+     * @return An Optional Double. Will be empty if the input is empty.
+     */
+    public static Optional<Double> getMaximum(double[] numbers) {
+        return getMaximum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMaximum(double[])}, for the slice of a double array from fromIndex (inclusive) to
+     * toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Double> getMaximum(double[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        if (fromIndex == toIndex) {
+            return Optional.empty();
+        }
+        return Optional.of(NumericKernels.INSTANCE.maximum(numbers, fromIndex, toIndex));
+    }
+
+    /**
+     * As {@link IterableFunctions#getMaximum(double[])}, for the remaining values of a DoubleBuffer. The position of
+     * the buffer is not changed.
+     */
+    public static Optional<Double> getMaximum(DoubleBuffer numbers) {
+        if (numbers.hasArray()) {
+            int offset = numbers.arrayOffset();
+            return getMaximum(numbers.array(), offset + numbers.position(), offset + numbers.limit());
+        }
+        if (!numbers.hasRemaining()) {
+            return Optional.empty();
+        }
+        double maximum = numbers.get(numbers.position());
+        for (int i = numbers.position() + 1; i < numbers.limit(); i++) {
+            double number = numbers.get(i);
+            maximum = number > maximum ? number : maximum;
+        }
+        return Optional.of(maximum);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMaximum(Iterable)}, for an int array.
+     * @return An Optional Integer. Will be empty if the input is empty.
+     */
+    public static Optional<Integer> getMaximum(int[] numbers) {
+        return getMaximum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMaximum(int[])}, for the slice of an int array from fromIndex (inclusive) to
+     * toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Integer> getMaximum(int[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        if (fromIndex == toIndex) {
+            return Optional.empty();
+        }
+        int maximum = numbers[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            maximum = Math.max(maximum, numbers[i]);
+        }
+        return Optional.of(maximum);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMaximum(Iterable)}, for a long array.
+     * @return An Optional Long. Will be empty if the input is empty.
+     */
+    public static Optional<Long> getMaximum(long[] numbers) {
+        return getMaximum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMaximum(long[])}, for the slice of a long array from fromIndex (inclusive) to
+     * toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Long> getMaximum(long[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        if (fromIndex == toIndex) {
+            return Optional.empty();
+        }
+        long maximum = numbers[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            maximum = Math.max(maximum, numbers[i]);
+        }
+        return Optional.of(maximum);
+    }
+
+    /**
+     * Two-at-a-time comparison method to find the minimum and maximum of a set of numbers simultaneously.
+     * @return an Optional Pair with the minimum first and the maximum second. Will be empty if the input is empty.
+     */
+    public static <T extends Number> Optional<Pair<T, T>> getMinimumAndMaximum(Iterable<T> numbers) {
+        T   minimum = null,
+            maximum = null;
+
+        for (Pair<T, Optional<T>> pair : twoAtATime(numbers)) {
+            T first = pair.first();
+            double doubleFirst = first.doubleValue();
+
+            if (minimum == null) {
+                minimum = first;
+                maximum = first;
             }
 
             if (pair.second().isEmpty()) {
@@ -430,89 +1369,765 @@ public final class IterableFunctions {
             }
         }
 
-        return minimum == null ? Optional.empty() : Optional.of(new Pair<>(minimum, maximum));
+        return minimum == null ? Optional.empty() : Optional.of(new Pair<>(minimum, maximum));
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimumAndMaximum(Iterable)}, for a double array.
+     * @return an Optional Pair with the minimum first and the maximum second. Will be empty if the input is empty.
+     */
+    public static Optional<Pair<Double, Double>> getMinimumAndMaximum(double[] numbers) {
+        return getMinimumAndMaximum(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimumAndMaximum(double[])}, for the slice of a double array from fromIndex
+     * (inclusive) to toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Pair<Double, Double>> getMinimumAndMaximum(double[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        if (fromIndex == toIndex) {
+            return Optional.empty();
+        }
+        double[] minimumAndMaximum = NumericKernels.INSTANCE.minimumAndMaximum(numbers, fromIndex, toIndex);
+        return Optional.of(new Pair<>(minimumAndMaximum[0], minimumAndMaximum[1]));
+    }
+
+
+    /**
+     * Finds the k largest items in a given Iterable in a single pass, keeping only the best k seen so far in a bounded
+     * heap, in O(n log(k)) time and O(k) space. A generalisation of getMaximum to more than one item.
+     * @param k How many items to find. If the input has fewer, all of them are returned.
+     * @return The k largest items, largest first. Equal items keep their original relative order.
+     * @throws IllegalArgumentException if k is negative
+     */
+    public static <T extends Comparable<? super T>> List<T> getLargest(Iterable<T> items, int k) {
+        return IterableFunctions.<T, Object>extremes(items, null, k, true).first();
+    }
+
+    /**
+     * As {@link IterableFunctions#getLargest(Iterable, int)}, for the k smallest items, smallest first.
+     */
+    public static <T extends Comparable<? super T>> List<T> getSmallest(Iterable<T> items, int k) {
+        return IterableFunctions.<T, Object>extremes(items, null, k, false).first();
+    }
+
+    /**
+     * As {@link IterableFunctions#getLargest(Iterable, int)}, keeping alongside each selected value the item at the
+     * same index in a companion list, in the manner of sortListsSimultaneously.
+     * @return The k largest values, largest first, and their companions in the same order
+     * @throws IllegalArgumentException if the lists are of different lengths, or k is negative
+     */
+    public static <T extends Comparable<? super T>, E> Pair<List<T>, List<E>> getLargestSimultaneously(List<T> valueList, List<E> companionList, int k) {
+        if (valueList.size() != companionList.size()) {
+            throw new IllegalArgumentException("Mismatched list lengths");
+        }
+        return extremes(valueList, companionList, k, true);
+    }
+
+    /**
+     * As {@link IterableFunctions#getLargestSimultaneously(List, List, int)}, for the k smallest values, smallest first.
+     */
+    public static <T extends Comparable<? super T>, E> Pair<List<T>, List<E>> getSmallestSimultaneously(List<T> valueList, List<E> companionList, int k) {
+        if (valueList.size() != companionList.size()) {
+            throw new IllegalArgumentException("Mismatched list lengths");
+        }
+        return extremes(valueList, companionList, k, false);
+    }
+
+    /**
+     * As {@link IterableFunctions#getLargest(Iterable, int)}, for a double array. NaNs are skipped.
+     * @return The k largest numbers, largest first
+     */
+    public static double[] getLargest(double[] numbers, int k) {
+        return gathered(numbers, SortingFunctions.extremeIndices(numbers, k, true, false));
+    }
+
+    /**
+     * As {@link IterableFunctions#getSmallest(Iterable, int)}, for a double array. NaNs are skipped.
+     * @return The k smallest numbers, smallest first
+     */
+    public static double[] getSmallest(double[] numbers, int k) {
+        return gathered(numbers, SortingFunctions.extremeIndices(numbers, k, false, false));
+    }
+
+    /**
+     * As {@link IterableFunctions#getLargest(double[], int)}, but returns the indices of the k largest numbers rather
+     * than the numbers themselves, so that the matching entries of any number of companion arrays or lists can be read
+     * alongside.
+     * @return The indices of the k largest numbers, largest first. Equal numbers are ranked by index, earliest first.
+     */
+    public static int[] getIndicesOfLargest(double[] numbers, int k) {
+        return SortingFunctions.extremeIndices(numbers, k, true, false);
+    }
+
+    /**
+     * As {@link IterableFunctions#getIndicesOfLargest(double[], int)}, for the k smallest numbers, smallest first.
+     */
+    public static int[] getIndicesOfSmallest(double[] numbers, int k) {
+        return SortingFunctions.extremeIndices(numbers, k, false, false);
+    }
+
+    /**
+     * As {@link IterableFunctions#getLargest(double[], int)}, but splits large arrays across the common fork/join pool,
+     * giving each part its own bounded heap and then merging the heaps. The result is the same as the sequential one.
+     */
+    public static double[] getParallelLargest(double[] numbers, int k) {
+        return gathered(numbers, SortingFunctions.extremeIndices(numbers, k, true, true));
+    }
+
+    /**
+     * As {@link IterableFunctions#getParallelLargest(double[], int)}, for the k smallest numbers, smallest first.
+     */
+    public static double[] getParallelSmallest(double[] numbers, int k) {
+        return gathered(numbers, SortingFunctions.extremeIndices(numbers, k, false, true));
+    }
+
+    /**
+     * As {@link IterableFunctions#getIndicesOfLargest(double[], int)}, in parallel as by getParallelLargest.
+     */
+    public static int[] getParallelIndicesOfLargest(double[] numbers, int k) {
+        return SortingFunctions.extremeIndices(numbers, k, true, true);
+    }
+
+    /**
+     * As {@link IterableFunctions#getIndicesOfSmallest(double[], int)}, in parallel as by getParallelLargest.
+     */
+    public static int[] getParallelIndicesOfSmallest(double[] numbers, int k) {
+        return SortingFunctions.extremeIndices(numbers, k, false, true);
+    }
+
+    private static double[] gathered(double[] numbers, int[] indices) {
+        double[] gathered = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            gathered[i] = numbers[indices[i]];
+        }
+        return gathered;
+    }
+
+    /**
+     * An item selected by a bounded heap, with its companion and its position in the input, which breaks ties
+     */
+    private record Ranked<T, E>(T value, E companion, long position) {}
+
+    /**
+     * @param companions The companions of the values, or null if there are none
+     */
+    private static <T extends Comparable<? super T>, E> Pair<List<T>, List<E>> extremes(Iterable<T> values, Iterable<E> companions, int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        Comparator<Ranked<T, E>> bestFirst = largest
+                ? Comparator.<Ranked<T, E>, T>comparing(Ranked::value, Comparator.reverseOrder())
+                : Comparator.comparing(Ranked::value);
+        bestFirst = bestFirst.thenComparingLong(Ranked::position);
+        PriorityQueue<Ranked<T, E>> heap = new PriorityQueue<>(bestFirst.reversed());
+
+        if (k > 0) {
+            Iterator<E> companionIterator = companions == null ? null : companions.iterator();
+            long position = 0;
+            for (T value : values) {
+                E companion = companionIterator == null ? null : companionIterator.next();
+                if (heap.size() < k) {
+                    heap.add(new Ranked<>(value, companion, position));
+                } else {
+                    // Later items lose ties, so only a strictly better value can displace the worst kept so far
+                    int comparison = value.compareTo(heap.peek().value());
+                    if (largest ? comparison > 0 : comparison < 0) {
+                        heap.poll();
+                        heap.add(new Ranked<>(value, companion, position));
+                    }
+                }
+                position++;
+            }
+        }
+
+        List<Ranked<T, E>> selected = new ArrayList<>(heap);
+        selected.sort(bestFirst);
+        List<T> selectedValues = new ArrayList<>(selected.size());
+        List<E> selectedCompanions = new ArrayList<>(selected.size());
+        for (Ranked<T, E> ranked : selected) {
+            selectedValues.add(ranked.value());
+            selectedCompanions.add(ranked.companion());
+        }
+        return new Pair<>(selectedValues, selectedCompanions);
+    }
+
+    /**
+     * Calculates the arithmetic mean of a given Iterable of numbers.
+     * @return an Optional Double. Will be empty if input is empty.
+     */
+    public static <T extends Number> Optional<Double> getArithmeticMean(Iterable<T> numbers) {
+        double sum = 0d;
+        int i = 0;
+        for (T number : numbers) {
+            sum += number.doubleValue();
+            i++;
+        }
+        if (i==0) {
+            return Optional.empty();
+        }
+        return Optional.of(sum / i);
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(Iterable)}, for a double array.
+     * @return an Optional Double. Will be empty if input is empty.
+     * @see IterableFunctions#getSum(double[])
+     */
+    public static Optional<Double> getArithmeticMean(double[] numbers) {
+        return getArithmeticMean(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(double[])}, for the slice of a double array from fromIndex
+     * (inclusive) to toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Double> getArithmeticMean(double[] numbers, int fromIndex, int toIndex) {
+        double sum = getSum(numbers, fromIndex, toIndex);
+        return fromIndex == toIndex ? Optional.empty() : Optional.of(sum / (toIndex - fromIndex));
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(double[])}, for the remaining values of a DoubleBuffer. The
+     * position of the buffer is not changed.
+     */
+    public static Optional<Double> getArithmeticMean(DoubleBuffer numbers) {
+        return numbers.hasRemaining() ? Optional.of(getSum(numbers) / numbers.remaining()) : Optional.empty();
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(Iterable)}, for an int array.
+     * @return an Optional Double. Will be empty if input is empty.
+     */
+    public static Optional<Double> getArithmeticMean(int[] numbers) {
+        return getArithmeticMean(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(int[])}, for the slice of an int array from fromIndex (inclusive)
+     * to toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Double> getArithmeticMean(int[] numbers, int fromIndex, int toIndex) {
+        double sum = getSum(numbers, fromIndex, toIndex);
+        return fromIndex == toIndex ? Optional.empty() : Optional.of(sum / (toIndex - fromIndex));
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(Iterable)}, for a long array.
+     * @return an Optional Double. Will be empty if input is empty.
+     */
+    public static Optional<Double> getArithmeticMean(long[] numbers) {
+        return getArithmeticMean(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(long[])}, for the slice of a long array from fromIndex (inclusive)
+     * to toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Double> getArithmeticMean(long[] numbers, int fromIndex, int toIndex) {
+        double sum = getSum(numbers, fromIndex, toIndex);
+        return fromIndex == toIndex ? Optional.empty() : Optional.of(sum / (toIndex - fromIndex));
+    }
+
+    /**
+     * Calculates the product of a given Iterable of numbers.
+     */
+    public static <T extends Number> double getProduct(Iterable<T> numbers) {
+        double product = 1;
+        for (T number : numbers) {
+            product *= number.doubleValue();
+        }
+        return product;
+    }
+
+    /**
+     * As {@link IterableFunctions#getProduct(Iterable)}, for a double array.
+     */
+    public static double getProduct(double[] numbers) {
+        return getProduct(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getProduct(double[])}, for the slice of a double array from fromIndex (inclusive) to
+     * toIndex (exclusive).
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static double getProduct(double[] numbers, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, numbers.length);
+        double product = 1;
+        for (int i = fromIndex; i < toIndex; i++) {
+            product *= numbers[i];
+        }
+        return product;
+    }
+
+    /**
+     * Calculates the dot product of two equal-length double arrays, i.e. the sum of the products of their same-index
+     * values. Uses SIMD kernels where available.
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public static double getDotProduct(double[] first, double[] second) {
+        if (first.length != second.length) {
+            throw new IllegalArgumentException("Mismatched array lengths");
+        }
+        return NumericKernels.INSTANCE.dotProduct(first, second, 0, first.length);
+    }
+
+    /**
+     * Calculates the sum of a double array using every core, with compensated summation so that rounding errors do not
+     * build up over long series. The array is always split the same way regardless of how many threads are available,
+     * so the result is bit-for-bit reproducible on any machine.
+     * @see IterableFunctions#getSum(double[])
+     */
+    public static double getParallelSum(double[] numbers) {
+        return ParallelReductions.sum(numbers);
+    }
+
+    /**
+     * As {@link IterableFunctions#getParallelSum(double[])}, for a list of numbers. The list is unboxed into an array
+     * first, in parallel if it is RandomAccess, so gives exactly the same result as the array version.
+     */
+    public static double getParallelSum(List<? extends Number> numbers) {
+        return ParallelReductions.sum(toDoubleArray(numbers));
+    }
+
+    /**
+     * Calculates the product of a double array using every core. Tracks the rounding error of each multiplication so
+     * that it does not build up over long series. As with getParallelSum, the result is bit-for-bit reproducible
+     * regardless of the number of threads.
+     * @see IterableFunctions#getProduct(double[])
+     */
+    public static double getParallelProduct(double[] numbers) {
+        return ParallelReductions.product(numbers);
+    }
+
+    /**
+     * As {@link IterableFunctions#getParallelProduct(double[])}, for a list of numbers.
+     */
+    public static double getParallelProduct(List<? extends Number> numbers) {
+        return ParallelReductions.product(toDoubleArray(numbers));
+    }
+
+    /**
+     * Calculates the arithmetic mean of a double array from its parallel, compensated, reproducible sum.
+     * @return an Optional Double. Will be empty if input is empty.
+     * @see IterableFunctions#getParallelSum(double[])
+     */
+    public static Optional<Double> getParallelArithmeticMean(double[] numbers) {
+        return numbers.length == 0 ? Optional.empty() : Optional.of(ParallelReductions.sum(numbers) / numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getParallelArithmeticMean(double[])}, for a list of numbers.
+     */
+    public static Optional<Double> getParallelArithmeticMean(List<? extends Number> numbers) {
+        return getParallelArithmeticMean(toDoubleArray(numbers));
+    }
+
+    private static double[] toDoubleArray(List<? extends Number> numbers) {
+        double[] array = new double[numbers.size()];
+        if (numbers instanceof RandomAccess) {
+            IntStream.range(0, array.length).parallel().forEach(i -> array[i] = numbers.get(i).doubleValue());
+        } else {
+            int i = 0;
+            for (Number number : numbers) {
+                array[i++] = number.doubleValue();
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Calculates the natural logarithm of the product of a given Iterable of numbers, by summing their logarithms. Unlike
+     * getProduct, this cannot overflow or underflow on long series. The logarithms are summed with Neumaier
+     * compensation, so rounding errors do not build up either.
+     * @return The natural logarithm of the product. NaN if any number is negative, and negative infinity if any is zero.
+     */
+    public static <T extends Number> double getLogProduct(Iterable<T> numbers) {
+        return sumOfLogarithms(numbers, false)[0];
     }
 
+    /**
+     * As {@link IterableFunctions#getLogProduct(Iterable)}, for a double array. Large arrays are summed in parallel,
+     * reproducibly, as by getParallelSum.
+     * @see IterableFunctions#getParallelSum(double[])
+     */
+    public static double getLogProduct(double[] numbers) {
+        return ParallelReductions.logarithmSum(numbers);
+    }
 
     /**
-     * Calculates the arithmetic mean of a given Iterable of numbers.
-     * @return an Optional Double. Will be empty if input is empty.
+     * Calculates the geometric mean of a given Iterable of numbers: the n-th root of their product. This is done in log
+     * space, so it does not overflow or underflow however long the input is.
+     * @return an Optional Double. Will be empty if input is empty, and NaN if any number is negative.
+     * @see IterableFunctions#getLogProduct(Iterable)
      */
-    public static <T extends Number> Optional<Double> getArithmeticMean(Iterable<T> numbers) {
-        double sum = 0d;
-        int i = 0;
-        for (T number : numbers) {
-            sum += number.doubleValue();
-            i++;
+    public static <T extends Number> Optional<Double> getGeometricMean(Iterable<T> numbers) {
+        double[] sumAndCount = sumOfLogarithms(numbers, false);
+        if (sumAndCount[1] == 0) {
+            return Optional.empty();
         }
-        if (i==0) {
+        return Optional.of(Math.exp(sumAndCount[0] / sumAndCount[1]));
+    }
+
+    /**
+     * As {@link IterableFunctions#getGeometricMean(Iterable)}, for a double array. Large arrays are summed in parallel,
+     * reproducibly, as by getParallelSum.
+     */
+    public static Optional<Double> getGeometricMean(double[] numbers) {
+        if (numbers.length == 0) {
             return Optional.empty();
         }
-        return Optional.of(sum / i);
+        return Optional.of(Math.exp(ParallelReductions.logarithmSum(numbers) / numbers.length));
     }
 
     /**
-     * Calculates the product of a given Iterable of numbers.
+     * As {@link IterableFunctions#getGeometricMean(Iterable)}, for a stream of doubles. Runs in parallel if the stream
+     * is parallel.
      */
-    public static <T extends Number> double getProduct(Iterable<T> numbers) {
-        double product = 1;
-        for (T number : numbers) {
-            product *= number.doubleValue();
+    public static Optional<Double> getGeometricMean(DoubleStream numbers) {
+        OptionalDouble meanLogarithm = numbers.map(Math::log).average();
+        return meanLogarithm.isPresent() ? Optional.of(Math.exp(meanLogarithm.getAsDouble())) : Optional.empty();
+    }
+
+    /**
+     * The shared kernel of the log-space functions: a compensated sum of the natural logarithms of some numbers, or of
+     * one plus each number, which is more accurate for values close to zero such as returns.
+     * @return A two-element array holding the sum of the logarithms, then the number of values summed
+     */
+    static double[] sumOfLogarithms(Iterable<? extends Number> numbers, boolean ofOnePlus) {
+        double[] sumAndCompensation = new double[2];
+        long count = 0;
+        for (Number number : numbers) {
+            double value = number.doubleValue();
+            ParallelReductions.addCompensated(sumAndCompensation, ofOnePlus ? Math.log1p(value) : Math.log(value));
+            count++;
         }
-        return product;
+        return new double[]{ParallelReductions.compensatedTotal(sumAndCompensation), count};
     }
 
     /**
-     * Calculates the geometric mean of a given Iterable of numbers.
-     * @return an Optional Double. Will be empty if input is empty.
+     * Accumulates the summary statistics of a given Iterable of numbers in a single pass. Useful when more than one
+     * statistic is needed, or when the Iterable is expensive to iterate, e.g. because it is backed by a file.
+     * @return An accumulator holding the count, sum, mean, variance, minimum and maximum of the numbers
+     * @see StatisticsAccumulator
      */
-    public static <T extends Number> Optional<Double> getGeometricMean(LinkedList<T> numbers) {
-        double product = 1;
-        int i = 0;
-        for (T number : numbers) {
-            product *= number.doubleValue();
-            i++;
+    public static StatisticsAccumulator getStatistics(Iterable<? extends Number> numbers) {
+        return StatisticsAccumulator.of(numbers);
+    }
+
+    /**
+     * Finds the k-th smallest number in a double array, counting from 0, without sorting it. The array is copied first,
+     * and the copy is partitioned by introselect in expected linear time. getMinimum and getMaximum are the special
+     * cases k = 0 and k = n - 1. NaNs are ordered last, as by {@link Arrays#sort(double[])}.
+     * @throws IndexOutOfBoundsException if k is not an index of the array
+     */
+    public static double getOrderStatistic(double[] numbers, int k) {
+        return getOrderStatisticInPlace(numbers.clone(), k);
+    }
+
+    /**
+     * As {@link IterableFunctions#getOrderStatistic(double[], int)}, but partitions the given array rather than a copy.
+     * Afterwards the k-th smallest number is at index k, with no larger numbers before it and no smaller numbers after.
+     */
+    public static double getOrderStatisticInPlace(double[] numbers, int k) {
+        Objects.checkIndex(k, numbers.length);
+        SortingFunctions.select(numbers, 0, numbers.length, new int[]{k});
+        return numbers[k];
+    }
+
+    /**
+     * Calculates the exact median of a double array: the middle number, or the mean of the two middle numbers if there
+     * is an even number of them. The array is not modified.
+     * @return an Optional Double. Will be empty if the input is empty.
+     * @see IterableFunctions#getQuantile(double[], double)
+     */
+    public static Optional<Double> getMedian(double[] numbers) {
+        return getQuantile(numbers, 0.5);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMedian(double[])}, but partitions the given array rather than a copy.
+     */
+    public static Optional<Double> getMedianInPlace(double[] numbers) {
+        return getQuantileInPlace(numbers, 0.5);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMedian(double[])}, for a List of numbers.
+     */
+    public static Optional<Double> getMedian(List<? extends Number> numbers) {
+        return getQuantileInPlace(toDoubleArray(numbers), 0.5);
+    }
+
+    /**
+     * Calculates an exact quantile of a double array, interpolating linearly between the two closest ranks (the
+     * definition used by Excel's PERCENTILE.INC and by R's default). The array is copied first, and the copy is
+     * partitioned by introselect in expected linear time. NaNs are ordered last, as by {@link Arrays#sort(double[])}.
+     * @param fraction The quantile to calculate, from 0 to 1, e.g. 0.99 for p99
+     * @return an Optional Double. Will be empty if the input is empty.
+     * @throws IllegalArgumentException if the fraction is not between 0 and 1
+     * @see QuantileSketch
+     */
+    public static Optional<Double> getQuantile(double[] numbers, double fraction) {
+        return getQuantiles(numbers, fraction).map(quantiles -> quantiles[0]);
+    }
+
+    /**
+     * As {@link IterableFunctions#getQuantile(double[], double)}, but partitions the given array rather than a copy.
+     */
+    public static Optional<Double> getQuantileInPlace(double[] numbers, double fraction) {
+        return getQuantilesInPlace(numbers, fraction).map(quantiles -> quantiles[0]);
+    }
+
+    /**
+     * As {@link IterableFunctions#getQuantile(double[], double)}, for a List of numbers.
+     */
+    public static Optional<Double> getQuantile(List<? extends Number> numbers, double fraction) {
+        return getQuantilesInPlace(toDoubleArray(numbers), fraction).map(quantiles -> quantiles[0]);
+    }
+
+    /**
+     * As {@link IterableFunctions#getQuantile(double[], double)}, for several quantiles at once. All the ranks needed
+     * are selected together, in a single recursive partitioning of one copy of the array.
+     * @return an Optional array holding the quantiles in the same order as the fractions. Will be empty if the input is
+     * empty.
+     */
+    public static Optional<double[]> getQuantiles(double[] numbers, double... fractions) {
+        return getQuantilesInPlace(numbers.clone(), fractions);
+    }
+
+    /**
+     * As {@link IterableFunctions#getQuantiles(double[], double...)}, for a List of numbers.
+     */
+    public static Optional<double[]> getQuantiles(List<? extends Number> numbers, double... fractions) {
+        return getQuantilesInPlace(toDoubleArray(numbers), fractions);
+    }
+
+    /**
+     * As {@link IterableFunctions#getQuantiles(double[], double...)}, but partitions the given array rather than a copy.
+     */
+    public static Optional<double[]> getQuantilesInPlace(double[] numbers, double... fractions) {
+        for (double fraction : fractions) {
+            if (!(fraction >= 0 && fraction <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1");
+            }
         }
-        if (i == 0) {
+        int n = numbers.length;
+        if (n == 0) {
             return Optional.empty();
         }
-        return Optional.of(product);
+
+        int[] positions = new int[2 * fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            int lower = (int) (fractions[i] * (n - 1));
+            positions[2 * i] = lower;
+            positions[2 * i + 1] = Math.min(lower + 1, n - 1);
+        }
+        SortingFunctions.select(numbers, 0, n, Arrays.stream(positions).sorted().distinct().toArray());
+
+        double[] quantiles = new double[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            double rank = fractions[i] * (n - 1);
+            int lower = positions[2 * i];
+            double weight = rank - lower;
+            quantiles[i] = weight == 0 ? numbers[lower] : numbers[lower] + weight * (numbers[positions[2 * i + 1]] - numbers[lower]);
+        }
+        return Optional.of(quantiles);
     }
 
     /**
-     * Given a sample of values from a population, estimates the standard deviation of the entire population.
+     * Sketches the distribution of a given Iterable of numbers in a single pass and bounded memory, so that quantiles
+     * such as the median or p99 can be estimated without sorting a copy of the input.
+     * @return A sketch with the default accuracy, holding the numbers
+     * @see QuantileSketch
+     */
+    public static QuantileSketch getQuantileSketch(Iterable<? extends Number> numbers) {
+        return QuantileSketch.of(numbers);
+    }
+
+    /**
+     * As {@link IterableFunctions#getQuantileSketch(Iterable)}, for a double array.
+     */
+    public static QuantileSketch getQuantileSketch(double[] numbers) {
+        return QuantileSketch.of(numbers);
+    }
+
+    /**
+     * Given a sample of values from a population, estimates the standard deviation of the entire population. Iterates
+     * the input only once.
      * @return An Optional Double. Will be empty if the input is empty.
      */
     public static <T extends Number> Optional<Double> getSampleStandardDeviation(Iterable<T> numbers) {
-        double sum = 0d;
-        Optional<Double> optional = getArithmeticMean(numbers);
-        if (optional.isEmpty()) {
-            return Optional.empty();
+        return getStatistics(numbers).getSampleStandardDeviation();
+    }
+
+    /**
+     * Given all values for an entire population, calculates the standard deviation of the population. Iterates the
+     * input only once.
+     * @return An Optional Double. Will be empty if the input is empty.
+     */
+    public static <T extends Number> Optional<Double> getPopulationStandardDeviation(Iterable<T> numbers) {
+        return getStatistics(numbers).getPopulationStandardDeviation();
+    }
+
+    /**
+     * As {@link IterableFunctions#getSampleStandardDeviation(Iterable)}, for the slice of a double array from fromIndex
+     * (inclusive) to toIndex (exclusive). Since arrays are cheap to iterate, this takes two passes, which is both
+     * faster and more accurate than a single-pass update.
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Double> getSampleStandardDeviation(double[] numbers, int fromIndex, int toIndex) {
+        return getArithmeticMean(numbers, fromIndex, toIndex)
+                .map(mean -> Math.sqrt(NumericKernels.INSTANCE.sumOfSquaredDeviations(numbers, fromIndex, toIndex, mean) / (toIndex - fromIndex - 1)));
+    }
+
+    /**
+     * As {@link IterableFunctions#getSampleStandardDeviation(double[], int, int)}, for a whole double array.
+     */
+    public static Optional<Double> getSampleStandardDeviation(double[] numbers) {
+        return getSampleStandardDeviation(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getPopulationStandardDeviation(Iterable)}, for the slice of a double array from
+     * fromIndex (inclusive) to toIndex (exclusive). Since arrays are cheap to iterate, this takes two passes, which is
+     * both faster and more accurate than a single-pass update.
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static Optional<Double> getPopulationStandardDeviation(double[] numbers, int fromIndex, int toIndex) {
+        return getArithmeticMean(numbers, fromIndex, toIndex)
+                .map(mean -> Math.sqrt(NumericKernels.INSTANCE.sumOfSquaredDeviations(numbers, fromIndex, toIndex, mean) / (toIndex - fromIndex)));
+    }
+
+    /**
+     * As {@link IterableFunctions#getPopulationStandardDeviation(double[], int, int)}, for a whole double array.
+     */
+    public static Optional<Double> getPopulationStandardDeviation(double[] numbers) {
+        return getPopulationStandardDeviation(numbers, 0, numbers.length);
+    }
+
+    /**
+     * As {@link IterableFunctions#getSum(DoubleBuffer)}, for an off-heap column. Each chunk of the column is summed as a
+     * buffer, and the chunk totals are added with Neumaier compensation, so long columns lose no more precision than
+     * short ones.
+     */
+    public static double getSum(DoubleColumn numbers) {
+        double[] sumAndCompensation = new double[2];
+        for (DoubleBuffer chunk : numbers.asBuffers()) {
+            ParallelReductions.addCompensated(sumAndCompensation, getSum(chunk));
         }
-        double mean = optional.orElseThrow();
-        int i = 0;
-        for (T number : numbers) {
-            sum += pow(number.doubleValue() - mean, 2);
-            i++;
+        return ParallelReductions.compensatedTotal(sumAndCompensation);
+    }
+
+    /**
+     * As {@link IterableFunctions#getMinimum(DoubleBuffer)}, for an off-heap column.
+     */
+    public static Optional<Double> getMinimum(DoubleColumn numbers) {
+        Optional<Double> minimum = Optional.empty();
+        for (DoubleBuffer chunk : numbers.asBuffers()) {
+            Optional<Double> chunkMinimum = getMinimum(chunk);
+            if (minimum.isEmpty() || chunkMinimum.get() < minimum.get()) {
+                minimum = chunkMinimum;
+            }
         }
-        return Optional.of(Math.sqrt(sum / i));
+        return minimum;
     }
 
     /**
-     * Given all values for an entire population, calculates the standard deviation of the population.
-     * @return An Optional Double. Will be empty if the input is empty.
+     * As {@link IterableFunctions#getMaximum(DoubleBuffer)}, for an off-heap column.
      */
-    public static <T extends Number> Optional<Double> getPopulationStandardDeviation(List<T> numbers) {
-        double sum = 0d;
-        Optional<Double> optional = getArithmeticMean(numbers);
-        if (optional.isEmpty()) {
-            return Optional.empty();
+    public static Optional<Double> getMaximum(DoubleColumn numbers) {
+        Optional<Double> maximum = Optional.empty();
+        for (DoubleBuffer chunk : numbers.asBuffers()) {
+            Optional<Double> chunkMaximum = getMaximum(chunk);
+            if (maximum.isEmpty() || chunkMaximum.get() > maximum.get()) {
+                maximum = chunkMaximum;
+            }
         }
-        double mean = optional.orElseThrow();
-        for (T number : numbers) {
-            sum += pow(number.doubleValue() - mean, 2);
+        return maximum;
+    }
+
+    /**
+     * As {@link IterableFunctions#getArithmeticMean(DoubleBuffer)}, for an off-heap column.
+     */
+    public static Optional<Double> getArithmeticMean(DoubleColumn numbers) {
+        return numbers.length() == 0 ? Optional.empty() : Optional.of(getSum(numbers) / numbers.length());
+    }
+
+    /**
+     * As {@link IterableFunctions#getSampleStandardDeviation(double[])}, for an off-heap column. Takes two passes over
+     * the column, which for a mapped file means reading it twice.
+     */
+    public static Optional<Double> getSampleStandardDeviation(DoubleColumn numbers) {
+        return getArithmeticMean(numbers).map(mean -> Math.sqrt(sumOfSquaredDeviations(numbers, mean) / (numbers.length() - 1)));
+    }
+
+    /**
+     * As {@link IterableFunctions#getPopulationStandardDeviation(double[])}, for an off-heap column. Takes two passes
+     * over the column, which for a mapped file means reading it twice.
+     */
+    public static Optional<Double> getPopulationStandardDeviation(DoubleColumn numbers) {
+        return getArithmeticMean(numbers).map(mean -> Math.sqrt(sumOfSquaredDeviations(numbers, mean) / numbers.length()));
+    }
+
+    /**
+     * As {@link IterableFunctions#getStatistics(Iterable)}, for an off-heap column. Reads the column only once.
+     */
+    public static StatisticsAccumulator getStatistics(DoubleColumn numbers) {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        for (DoubleBuffer chunk : numbers.asBuffers()) {
+            for (int i = 0; i < chunk.limit(); i++) {
+                accumulator.add(chunk.get(i));
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * As {@link IterableFunctions#getLogProduct(Iterable)}, for an off-heap column.
+     */
+    public static double getLogProduct(DoubleColumn numbers) {
+        return sumOfLogarithms(numbers, false);
+    }
+
+    /**
+     * As {@link IterableFunctions#getGeometricMean(Iterable)}, for an off-heap column.
+     */
+    public static Optional<Double> getGeometricMean(DoubleColumn numbers) {
+        return numbers.length() == 0 ? Optional.empty() : Optional.of(Math.exp(sumOfLogarithms(numbers, false) / numbers.length()));
+    }
+
+    /**
+     * As {@link IterableFunctions#sumOfLogarithms(Iterable, boolean)}, for an off-heap column. Since the column knows
+     * its length, only the sum is returned.
+     */
+    static double sumOfLogarithms(DoubleColumn numbers, boolean ofOnePlus) {
+        double[] sumAndCompensation = new double[2];
+        for (DoubleBuffer chunk : numbers.asBuffers()) {
+            for (int i = 0; i < chunk.limit(); i++) {
+                ParallelReductions.addCompensated(sumAndCompensation, ofOnePlus ? Math.log1p(chunk.get(i)) : Math.log(chunk.get(i)));
+            }
+        }
+        return ParallelReductions.compensatedTotal(sumAndCompensation);
+    }
+
+    private static double sumOfSquaredDeviations(DoubleColumn numbers, double mean) {
+        double sum = 0d;
+        for (DoubleBuffer chunk : numbers.asBuffers()) {
+            double chunkSum = 0d;
+            for (int i = 0; i < chunk.limit(); i++) {
+                double deviation = chunk.get(i) - mean;
+                chunkSum = Math.fma(deviation, deviation, chunkSum);
+            }
+            sum += chunkSum;
         }
-        return Optional.of(Math.sqrt(sum / (numbers.size() - 1)));
+        return sum;
     }
 
     /**
@@ -536,6 +2151,107 @@ public final class IterableFunctions {
         return originalValues.stream().map(x -> normalisationFunction.applyAsDouble(x.doubleValue())).toList();
     }
 
+    /**
+     * As {@link IterableFunctions#mapLinearly(Collection, double, double)}, for the slice of a double array from
+     * fromIndex (inclusive) to toIndex (exclusive), writing the results into a destination array rather than boxing
+     * them into a new List. The minimum and maximum are found in one fused pass, and both that pass and the mapping
+     * itself are split across the common fork/join pool for large slices. The mapping is exactly that given by
+     * {@link MathsFunctions#getLinearMappingFunction(double, double, double, double)}.
+     * @param source The array holding the numbers to be remapped
+     * @param destination The array into which to write the remapped numbers. May be the source itself, with the same
+     *                    destinationIndex as fromIndex, to remap in place; should not otherwise overlap the source.
+     * @param destinationIndex The index in the destination at which to write the first remapped number
+     * @return The destination array
+     * @throws IndexOutOfBoundsException if the slice is not within the source, or does not fit in the destination
+     */
+    public static double[] mapLinearly(double[] source, int fromIndex, int toIndex, double[] destination, int destinationIndex, double newMinimum, double newMaximum) {
+        Objects.checkFromToIndex(fromIndex, toIndex, source.length);
+        Objects.checkFromIndexSize(destinationIndex, toIndex - fromIndex, destination.length);
+        if (fromIndex == toIndex) {
+            return destination;
+        }
+
+        double[] minimumAndMaximum = ParallelReductions.minimumAndMaximum(source, fromIndex, toIndex);
+        double originalRange = minimumAndMaximum[1] - minimumAndMaximum[0];
+        if (originalRange == 0) {
+            if (source != destination || fromIndex != destinationIndex) {
+                System.arraycopy(source, fromIndex, destination, destinationIndex, toIndex - fromIndex);
+            }
+            return destination;
+        }
+        double normalisationFactor = (newMaximum - newMinimum) / originalRange;
+        ParallelReductions.mapLinearly(source, fromIndex, toIndex, destination, destinationIndex, minimumAndMaximum[0], normalisationFactor, newMinimum);
+        return destination;
+    }
+
+    /**
+     * As {@link IterableFunctions#mapLinearly(double[], int, int, double[], int, double, double)}, for a whole double
+     * array.
+     * @throws IllegalArgumentException if the arrays are of different lengths
+     */
+    public static double[] mapLinearly(double[] source, double[] destination, double newMinimum, double newMaximum) {
+        if (source.length != destination.length) {
+            throw new IllegalArgumentException("Mismatched array lengths");
+        }
+        return mapLinearly(source, 0, source.length, destination, 0, newMinimum, newMaximum);
+    }
+
+    /**
+     * As {@link IterableFunctions#mapLinearly(double[], double[], double, double)}, overwriting the given array.
+     * @return The given array
+     */
+    public static double[] mapLinearlyInPlace(double[] values, double newMinimum, double newMaximum) {
+        return mapLinearly(values, 0, values.length, values, 0, newMinimum, newMaximum);
+    }
+
+    /**
+     * As {@link IterableFunctions#mapLinearly(double[], double[], double, double)}, from the remaining numbers of one
+     * DoubleBuffer into another, starting at its position. Neither buffer's position is changed. Array-backed buffers
+     * are remapped as arrays; direct buffers are remapped sequentially.
+     * @param destination The buffer into which to write. May be the source itself, to remap in place.
+     * @return The destination buffer
+     * @throws IllegalArgumentException if the destination has fewer remaining places than the source has numbers
+     */
+    public static DoubleBuffer mapLinearly(DoubleBuffer source, DoubleBuffer destination, double newMinimum, double newMaximum) {
+        int length = source.remaining();
+        if (destination.remaining() < length) {
+            throw new IllegalArgumentException("Mismatched buffer lengths");
+        }
+        if (length == 0) {
+            return destination;
+        }
+        if (source.hasArray() && destination.hasArray()) {
+            int fromIndex = source.arrayOffset() + source.position();
+            mapLinearly(source.array(), fromIndex, fromIndex + length, destination.array(), destination.arrayOffset() + destination.position(), newMinimum, newMaximum);
+            return destination;
+        }
+
+        int fromIndex = source.position(), toIndex = source.limit(), shift = destination.position() - fromIndex;
+        double  minimum = source.get(fromIndex),
+                maximum = minimum;
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            double number = source.get(i);
+            minimum = number < minimum ? number : minimum;
+            maximum = number > maximum ? number : maximum;
+        }
+        double originalRange = maximum - minimum;
+        double normalisationFactor = originalRange == 0 ? 1 : (newMaximum - newMinimum) / originalRange;
+        double newOrigin = originalRange == 0 ? minimum : newMinimum;
+        for (int i = fromIndex; i < toIndex; i++) {
+            destination.put(i + shift, Math.fma(source.get(i) - minimum, normalisationFactor, newOrigin));
+        }
+        return destination;
+    }
+
+    /**
+     * As {@link IterableFunctions#mapLinearly(DoubleBuffer, DoubleBuffer, double, double)}, overwriting the remaining
+     * numbers of the given buffer.
+     * @return The given buffer
+     */
+    public static DoubleBuffer mapLinearlyInPlace(DoubleBuffer values, double newMinimum, double newMaximum) {
+        return mapLinearly(values, values, newMinimum, newMaximum);
+    }
+
     /**
      * GIven an iterable over some items, cast all the items to a child class.
      * @param clazz The child class to which to cast
@@ -546,10 +2262,105 @@ public final class IterableFunctions {
      * @throws ClassCastException if any items in the input cannot be cast to the given class
      */
     public static <T, E extends T> List<E> castList(Class<E> clazz, Iterable<T> items) throws ClassCastException {
-        List<E> result = new ArrayList<>();
+        List<E> result = items instanceof Collection<T> collection ? new ArrayList<>(collection.size()) : new ArrayList<>();
         for (T item : items) {
                 result.add(clazz.cast(item));
         }
         return result;
     }
+
+    /**
+     * Given an iterable over some items, lazily view all the items as instances of a child class. Nothing is copied;
+     * each item is cast as it is reached, so a single pass over the view allocates nothing but its Iterator.
+     * @param clazz The child class to which to cast
+     * @param items The items to be cast
+     * @param <T> The parent class being cast from
+     * @param <E> The child class being cast to
+     * @return An Iterable over the input items cast to the input class
+     * @see IterableFunctions#castList(Class, Iterable)
+     */
+    public static <T, E extends T> Iterable<E> castView(Class<E> clazz, Iterable<T> items) {
+        return () -> new Iterator<>() {
+            final Iterator<T> iterator = items.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            /**
+             * @throws ClassCastException if the next item cannot be cast to the given class
+             */
+            @Override
+            public E next() {
+                return clazz.cast(iterator.next());
+            }
+        };
+    }
+
+    /**
+     * As {@link IterableFunctions#castView(Class, Iterable)}, for a List. The view is an unmodifiable List backed by the
+     * given one, which casts each item as it is retrieved. It supports fast random access if the given List does.
+     * @throws ClassCastException from get, or from iteration, if the item reached cannot be cast to the given class
+     */
+    public static <T, E extends T> List<E> castView(Class<E> clazz, List<T> items) {
+        return items instanceof RandomAccess ? new RandomAccessCastView<>(clazz, items) : new CastView<>(clazz, items);
+    }
+
+    /**
+     * Checks once that every item in a List can be cast to a child class, then returns that same List typed as a List
+     * of the child class. Nothing is copied, and no further checks are made, so later reads cost nothing. This suits
+     * RandomAccess lists that are read many times; for a single pass, prefer castView.
+     * <p>
+     * The result shares the given List. If something is later added to it through a reference of the parent type, the
+     * result may hold items that are not of the child class, which will surface as a ClassCastException wherever they
+     * are read.
+     * </p>
+     * @return The given List, as a List of the child class
+     * @throws ClassCastException if any items in the input cannot be cast to the given class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, E extends T> List<E> castListVerified(Class<E> clazz, List<T> items) throws ClassCastException {
+        if (items instanceof RandomAccess) {
+            for (int i = 0, size = items.size(); i < size; i++) {
+                clazz.cast(items.get(i));
+            }
+        } else {
+            for (T item : items) {
+                clazz.cast(item);
+            }
+        }
+        return (List<E>) items;
+    }
+
+    private static class CastView<T, E extends T> extends AbstractList<E> {
+        private final Class<E> clazz;
+        private final List<T> items;
+
+        CastView(Class<E> clazz, List<T> items) {
+            this.clazz = clazz;
+            this.items = items;
+        }
+
+        @Override
+        public E get(int index) {
+            return clazz.cast(items.get(index));
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return castView(clazz, (Iterable<T>) items).iterator();
+        }
+    }
+
+    private static final class RandomAccessCastView<T, E extends T> extends CastView<T, E> implements RandomAccess {
+        RandomAccessCastView(Class<E> clazz, List<T> items) {
+            super(clazz, items);
+        }
+    }
 }
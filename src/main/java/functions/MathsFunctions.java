@@ -407,7 +407,7 @@ public final class MathsFunctions {
         double newRange = newValue2 - newValue1;
         double normalisationFactor = newRange/originalRange;
 
-        return Optional.of(x -> (x - originalValue1) * normalisationFactor + newValue1);
+        return Optional.of(x -> Math.fma(x - originalValue1, normalisationFactor, newValue1));
     }
 
     /** Note that because the gradient function assumes a Cartesian plane, the order the points are in does not matter
@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+/**
+ * The innermost loops of the numeric reductions over double arrays. There are two implementations: a portable scalar
+ * one, and a SIMD one built on the incubating Vector API. The SIMD kernels live in their own source set and are only
+ * used when the jdk.incubator.vector module is present at runtime (i.e. the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}), so that the library still works everywhere else. Setting the system
+ * property {@code arete.scalarKernels} to true forces the scalar kernels regardless.
+ * <p>
+ * All ranges are from fromIndex (inclusive) to toIndex (exclusive), and are assumed to have already been checked.
+ * Minimum and maximum kernels assume a non-empty range, and skip NaNs unless the first value in the range is NaN,
+ * matching the Iterable versions in IterableFunctions. Reductions may be performed in any order, so sums can differ
+ * between implementations in the last few bits.
+ * </p>
+ */
+interface NumericKernels {
+    NumericKernels INSTANCE = load();
+
+    double sum(double[] numbers, int fromIndex, int toIndex);
+
+    double minimum(double[] numbers, int fromIndex, int toIndex);
+
+    double maximum(double[] numbers, int fromIndex, int toIndex);
+
+    /**
+     * @return A two-element array holding the minimum, then the maximum
+     */
+    double[] minimumAndMaximum(double[] numbers, int fromIndex, int toIndex);
+
+    double sumOfSquaredDeviations(double[] numbers, int fromIndex, int toIndex, double mean);
+
+    double dotProduct(double[] first, double[] second, int fromIndex, int toIndex);
+
+    private static NumericKernels load() {
+        if (!Boolean.getBoolean("arete.scalarKernels") && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (NumericKernels) Class.forName("functions.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+                // Not packaged with the SIMD kernels, or they could not be linked; fall back to scalar
+            }
+        }
+        return new ScalarKernels();
+    }
+}
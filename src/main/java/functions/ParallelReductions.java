@@ -0,0 +1,279 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join reductions over double arrays whose results do not depend on how many threads run them. The array is split
+ * by a fixed binary tree down to leaves of {@link ParallelReductions#LEAF_SIZE} values, which depends only on the
+ * length of the array. Each leaf is reduced sequentially, and partial results are always combined in the same
+ * left-to-right order, so the same input gives bit-for-bit the same output on any machine and any pool size. Sums use
+ * Neumaier compensation, and products use an fma-based error-free transformation, so that rounding errors do not
+ * accumulate over long series.
+ * <p>
+ * The element-wise passes that accompany these reductions, such as applying a linear mapping once the range is known,
+ * are split in the same way.
+ * </p>
+ */
+final class ParallelReductions {
+    private ParallelReductions() {}
+
+    /**
+     * The size below which ranges are reduced sequentially. Must never depend on the number of available threads, or
+     * results would stop being reproducible.
+     */
+    static final int LEAF_SIZE = 1 << 12;
+
+    static double sum(double[] numbers) {
+        return compensatedTotal(new SumTask(numbers, 0, numbers.length, false).invoke());
+    }
+
+    /**
+     * @return The sum of the natural logarithms of the numbers, i.e. the natural logarithm of their product
+     */
+    static double logarithmSum(double[] numbers) {
+        return compensatedTotal(new SumTask(numbers, 0, numbers.length, true).invoke());
+    }
+
+    static double product(double[] numbers) {
+        return compensatedProduct(new ProductTask(numbers, 0, numbers.length).invoke());
+    }
+
+    /**
+     * Finds the minimum and maximum of a non-empty slice, with the same NaN handling as the sequential kernels: NaNs
+     * are skipped unless the first value of the slice is NaN.
+     * @return A two-element array holding the minimum, then the maximum
+     */
+    static double[] minimumAndMaximum(double[] numbers, int fromIndex, int toIndex) {
+        return new MinimumAndMaximumTask(numbers, fromIndex, toIndex, true).invoke();
+    }
+
+    /**
+     * Writes {@code fma(x - originalOrigin, factor, newOrigin)} for each x in the slice of source from fromIndex to
+     * toIndex into destination, starting at destinationIndex. This is exactly the function returned by
+     * {@link MathsFunctions#getLinearMappingFunction(double, double, double, double)}. Destination may be the source
+     * itself, with the same offset, but should not otherwise overlap it.
+     */
+    static void mapLinearly(double[] source, int fromIndex, int toIndex, double[] destination, int destinationIndex,
+                            double originalOrigin, double factor, double newOrigin) {
+        new LinearMappingAction(source, fromIndex, toIndex, destination, destinationIndex - fromIndex,
+                originalOrigin, factor, newOrigin).invoke();
+    }
+
+    /**
+     * Completes a Neumaier sum. Once the sum has become infinite the compensation term is meaningless (typically NaN),
+     * so it is dropped.
+     */
+    static double compensatedTotal(double[] sumAndCompensation) {
+        double sum = sumAndCompensation[0];
+        return Double.isInfinite(sum) ? sum : sum + sumAndCompensation[1];
+    }
+
+    /**
+     * Completes a compensated product. As with sums, the error term is meaningless once the product has overflowed or
+     * met an infinity, so only finite products are corrected.
+     */
+    static double compensatedProduct(double[] productAndError) {
+        double product = productAndError[0];
+        return Double.isFinite(product) ? product + productAndError[1] : product;
+    }
+
+    /**
+     * Adds a value to a running Neumaier sum, held as a sum and a compensation term.
+     */
+    static void addCompensated(double[] sumAndCompensation, double value) {
+        double sum = sumAndCompensation[0];
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            sumAndCompensation[1] += (sum - total) + value;
+        } else {
+            sumAndCompensation[1] += (value - total) + sum;
+        }
+        sumAndCompensation[0] = total;
+    }
+
+    /**
+     * Sums a range of numbers, or optionally their natural logarithms.
+     */
+    private static final class SumTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] numbers;
+        private final int lo, hi;
+        private final boolean logarithms;
+
+        SumTask(double[] numbers, int lo, int hi, boolean logarithms) {
+            this.numbers = numbers;
+            this.lo = lo;
+            this.hi = hi;
+            this.logarithms = logarithms;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                double[] sumAndCompensation = new double[2];
+                for (int i = lo; i < hi; i++) {
+                    addCompensated(sumAndCompensation, logarithms ? Math.log(numbers[i]) : numbers[i]);
+                }
+                return sumAndCompensation;
+            }
+            int mid = (lo + hi) >>> 1;
+            SumTask right = new SumTask(numbers, mid, hi, logarithms);
+            right.fork();
+            double[] left = new SumTask(numbers, lo, mid, logarithms).compute();
+            double[] rightResult = right.join();
+
+            addCompensated(left, rightResult[0]);
+            left[1] += rightResult[1];
+            return left;
+        }
+    }
+
+    /**
+     * Computes a product alongside an estimate of its accumulated rounding error. Each multiplication's exact error is
+     * recovered with {@link Math#fma(double, double, double)}, and the error term is carried through subsequent
+     * multiplications. The error is only tracked while the product is finite; after that it is left at zero.
+     */
+    private static final class ProductTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] numbers;
+        private final int lo, hi;
+
+        ProductTask(double[] numbers, int lo, int hi) {
+            this.numbers = numbers;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                double product = 1d, error = 0d;
+                for (int i = lo; i < hi; i++) {
+                    double number = numbers[i];
+                    double newProduct = product * number;
+                    error = Double.isFinite(newProduct)
+                            ? error * number + Math.fma(product, number, -newProduct)
+                            : 0d;
+                    product = newProduct;
+                }
+                return new double[]{product, error};
+            }
+            int mid = (lo + hi) >>> 1;
+            ProductTask right = new ProductTask(numbers, mid, hi);
+            right.fork();
+            double[] left = new ProductTask(numbers, lo, mid).compute();
+            double[] rightResult = right.join();
+
+            double product = left[0] * rightResult[0];
+            double error = Double.isFinite(product)
+                    ? Math.fma(left[0], rightResult[0], -product)
+                            + left[0] * rightResult[1] + left[1] * rightResult[0] + left[1] * rightResult[1]
+                    : 0d;
+            return new double[]{product, error};
+        }
+    }
+
+    /**
+     * Finds the minimum and maximum of a slice with the numeric kernels, combining halves left to right. Only the
+     * leftmost leaf may start with a NaN that poisons the result; other leaves skip their leading NaNs, and return null
+     * if they hold nothing else.
+     */
+    private static final class MinimumAndMaximumTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] numbers;
+        private final int lo, hi;
+        private final boolean leftmost;
+
+        MinimumAndMaximumTask(double[] numbers, int lo, int hi, boolean leftmost) {
+            this.numbers = numbers;
+            this.lo = lo;
+            this.hi = hi;
+            this.leftmost = leftmost;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                int from = lo;
+                if (!leftmost) {
+                    while (from < hi && Double.isNaN(numbers[from])) {
+                        from++;
+                    }
+                    if (from == hi) {
+                        return null;
+                    }
+                }
+                return NumericKernels.INSTANCE.minimumAndMaximum(numbers, from, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            MinimumAndMaximumTask right = new MinimumAndMaximumTask(numbers, mid, hi, false);
+            right.fork();
+            double[] left = new MinimumAndMaximumTask(numbers, lo, mid, leftmost).compute();
+            double[] rightResult = right.join();
+
+            if (left == null) {
+                return rightResult;
+            }
+            if (rightResult != null) {
+                left[0] = rightResult[0] < left[0] ? rightResult[0] : left[0];
+                left[1] = rightResult[1] > left[1] ? rightResult[1] : left[1];
+            }
+            return left;
+        }
+    }
+
+    private static final class LinearMappingAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] source, destination;
+        private final int lo, hi, shift;
+        private final double originalOrigin, factor, newOrigin;
+
+        LinearMappingAction(double[] source, int lo, int hi, double[] destination, int shift,
+                            double originalOrigin, double factor, double newOrigin) {
+            this.source = source;
+            this.lo = lo;
+            this.hi = hi;
+            this.destination = destination;
+            this.shift = shift;
+            this.originalOrigin = originalOrigin;
+            this.factor = factor;
+            this.newOrigin = newOrigin;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                for (int i = lo; i < hi; i++) {
+                    destination[i + shift] = Math.fma(source[i] - originalOrigin, factor, newOrigin);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new LinearMappingAction(source, lo, mid, destination, shift, originalOrigin, factor, newOrigin),
+                    new LinearMappingAction(source, mid, hi, destination, shift, originalOrigin, factor, newOrigin)
+            );
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+/**
+ * Portable implementations of {@link NumericKernels}. Sums are split across independent accumulators so that the loops
+ * are not serialised on a single chain of additions.
+ */
+final class ScalarKernels implements NumericKernels {
+    @Override
+    public double sum(double[] numbers, int fromIndex, int toIndex) {
+        double sum0 = 0d, sum1 = 0d, sum2 = 0d, sum3 = 0d;
+        int i = fromIndex;
+        for (; i <= toIndex - 4; i += 4) {
+            sum0 += numbers[i];
+            sum1 += numbers[i + 1];
+            sum2 += numbers[i + 2];
+            sum3 += numbers[i + 3];
+        }
+        for (; i < toIndex; i++) {
+            sum0 += numbers[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public double minimum(double[] numbers, int fromIndex, int toIndex) {
+        double minimum = numbers[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            double number = numbers[i];
+            minimum = number < minimum ? number : minimum;
+        }
+        return minimum;
+    }
+
+    @Override
+    public double maximum(double[] numbers, int fromIndex, int toIndex) {
+        double maximum = numbers[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            double number = numbers[i];
+            maximum = number > maximum ? number : maximum;
+        }
+        return maximum;
+    }
+
+    @Override
+    public double[] minimumAndMaximum(double[] numbers, int fromIndex, int toIndex) {
+        double  minimum = numbers[fromIndex],
+                maximum = minimum;
+        int i = fromIndex + 1;
+        for (; i < toIndex - 1; i += 2) {
+            double first = numbers[i], second = numbers[i + 1];
+            if (first > second) {
+                double swap = first;
+                first = second;
+                second = swap;
+            } else if (!(first <= second)) {
+                // At least one of the pair is NaN, which is skipped, so the other must be checked against both bounds
+                if (Double.isNaN(first)) {
+                    first = second;
+                } else {
+                    second = first;
+                }
+            }
+            minimum = first < minimum ? first : minimum;
+            maximum = second > maximum ? second : maximum;
+        }
+        if (i < toIndex) {
+            double last = numbers[i];
+            minimum = last < minimum ? last : minimum;
+            maximum = last > maximum ? last : maximum;
+        }
+        return new double[]{minimum, maximum};
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] numbers, int fromIndex, int toIndex, double mean) {
+        double sum0 = 0d, sum1 = 0d;
+        int i = fromIndex;
+        for (; i <= toIndex - 2; i += 2) {
+            double deviation0 = numbers[i] - mean, deviation1 = numbers[i + 1] - mean;
+            sum0 += deviation0 * deviation0;
+            sum1 += deviation1 * deviation1;
+        }
+        if (i < toIndex) {
+            double deviation = numbers[i] - mean;
+            sum0 += deviation * deviation;
+        }
+        return sum0 + sum1;
+    }
+
+    @Override
+    public double dotProduct(double[] first, double[] second, int fromIndex, int toIndex) {
+        double sum0 = 0d, sum1 = 0d;
+        int i = fromIndex;
+        for (; i <= toIndex - 2; i += 2) {
+            sum0 += first[i] * second[i];
+            sum1 += first[i + 1] * second[i + 1];
+        }
+        if (i < toIndex) {
+            sum0 += first[i] * second[i];
+        }
+        return sum0 + sum1;
+    }
+}
@@ -0,0 +1,1197 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+import types.tuples.Pair;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A collection of static functions for sorting by key without boxing. The central idea is the argsort: rather than
+ * sorting values directly, find the permutation of indices that would sort them, and then apply that permutation to as
+ * many lists or arrays as necessary. All sorts in this class are stable, meaning equal keys keep their original
+ * relative order.
+ */
+@SuppressWarnings("unused")
+public final class SortingFunctions {
+    private SortingFunctions() {}
+
+    /**
+     * Below this many elements, ranges are sorted by insertion sort rather than being split any further.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * Below this many elements, the parallel sorts stop forking and sort sequentially. Matches the granularity used by
+     * {@link Arrays#parallelSort(long[])}.
+     */
+    static final int PARALLEL_SORT_GRANULARITY = 1 << 13;
+
+    /**
+     * The most sorted runs an external sort merges at once, and so the most run files it holds open at once.
+     */
+    static final int MERGE_FAN_IN = 64;
+
+    /**
+     * The size in bytes of the read buffer for each run being merged.
+     */
+    static final int MERGE_BUFFER_SIZE = 1 << 13;
+
+    /**
+     * At or above this many elements, sequential sorts of double and long keys use an LSD radix sort instead of a merge
+     * sort. The radix sort makes at most eight linear passes regardless of input size, which beats the log(n) passes of
+     * a merge sort on large inputs, but its fixed overheads make it slower on small ones.
+     */
+    static final int RADIX_SORT_THRESHOLD = 1 << 14;
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * Writes values of some Type to a binary stream and reads them back again, for sorts that spill to disk.
+     * @param <T> The Type being written and read
+     */
+    public interface Codec<T> {
+        void write(DataOutput output, T value) throws IOException;
+
+        T read(DataInput input) throws IOException;
+
+        Codec<Double> DOUBLE = of(DataOutput::writeDouble, DataInput::readDouble);
+        Codec<Long> LONG = of(DataOutput::writeLong, DataInput::readLong);
+        Codec<Integer> INTEGER = of(DataOutput::writeInt, DataInput::readInt);
+        Codec<String> STRING = of(DataOutput::writeUTF, DataInput::readUTF);
+
+        /**
+         * Builds a Codec from a pair of functions, e.g. {@code Codec.of(DataOutput::writeDouble, DataInput::readDouble)}.
+         */
+        static <T> Codec<T> of(ValueWriter<T> writer, ValueReader<T> reader) {
+            return new Codec<>() {
+                @Override
+                public void write(DataOutput output, T value) throws IOException {
+                    writer.write(output, value);
+                }
+
+                @Override
+                public T read(DataInput input) throws IOException {
+                    return reader.read(input);
+                }
+            };
+        }
+
+        interface ValueWriter<T> {
+            void write(DataOutput output, T value) throws IOException;
+        }
+
+        interface ValueReader<T> {
+            T read(DataInput input) throws IOException;
+        }
+    }
+
+    /**
+     * Finds the permutation that would stably sort the given keys into ascending order. Keys are ordered as by
+     * {@link Double#compare(double, double)}, so -0.0 comes before 0.0 and NaN comes after everything else.
+     * @param keys The keys to sort by. Not modified.
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static int[] argsort(double[] keys) {
+        return argsortInPlace(toSortableLongs(keys), false);
+    }
+
+    /**
+     * As {@link SortingFunctions#argsort(double[])}, but splits the work across the common fork/join pool. Gives an
+     * identical result, since the sort is stable either way.
+     * @param keys The keys to sort by. Not modified.
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static int[] parallelArgsort(double[] keys) {
+        return argsortInPlace(toSortableLongs(keys), true);
+    }
+
+    /**
+     * Finds the permutation that would stably sort the given keys into ascending order.
+     * @param keys The keys to sort by. Not modified.
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static int[] argsort(long[] keys) {
+        return argsortInPlace(keys.clone(), false);
+    }
+
+    /**
+     * As {@link SortingFunctions#argsort(long[])}, but splits the work across the common fork/join pool. Gives an
+     * identical result, since the sort is stable either way.
+     * @param keys The keys to sort by. Not modified.
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static int[] parallelArgsort(long[] keys) {
+        return argsortInPlace(keys.clone(), true);
+    }
+
+    /**
+     * Finds the permutation that would stably sort the given keys into ascending order. Since an int key and an int
+     * index fit together in a single long, this is done with a single primitive sort of packed values.
+     * @param keys The keys to sort by. Not modified.
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static int[] argsort(int[] keys) {
+        return argsort(keys, false);
+    }
+
+    /**
+     * As {@link SortingFunctions#argsort(int[])}, but sorts with {@link Arrays#parallelSort(long[])}. Gives an
+     * identical result, since every packed value is distinct.
+     * @param keys The keys to sort by. Not modified.
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static int[] parallelArgsort(int[] keys) {
+        return argsort(keys, true);
+    }
+
+    private static int[] argsort(int[] keys, boolean parallel) {
+        int n = keys.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long) keys[i] << 32) | i;
+        }
+        if (parallel) {
+            Arrays.parallelSort(packed);
+        } else {
+            Arrays.sort(packed);
+        }
+
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = (int) packed[i];
+        }
+        return permutation;
+    }
+
+    /**
+     * Finds the permutation that would stably sort the given list into its natural order. Lists made up entirely of
+     * Doubles, Longs or Integers are unboxed once and sorted with the matching primitive argsort; anything else is
+     * copied to an array and merge sorted alongside its indices, so no per-comparison List.get calls are made.
+     * @param keys The keys to sort by. Not modified.
+     * @param <T> The Type of the keys. Must be Comparable with itself
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static <T extends Comparable<? super T>> int[] argsort(List<T> keys) {
+        return argsort(keys, false);
+    }
+
+    /**
+     * As {@link SortingFunctions#argsort(List)}, but splits the work across the common fork/join pool. Gives an
+     * identical result, since the sort is stable either way.
+     * @param keys The keys to sort by. Not modified.
+     * @param <T> The Type of the keys. Must be Comparable with itself
+     * @return An array where the value at index i is the index in keys of the i-th smallest key
+     */
+    public static <T extends Comparable<? super T>> int[] parallelArgsort(List<T> keys) {
+        return argsort(keys, true);
+    }
+
+    private static int[] argsort(List<?> keys, boolean parallel) {
+        Object[] keyArray = keys.toArray();
+        int n = keyArray.length;
+
+        if (n > 0 && keyArray[0] instanceof Double) {
+            double[] doubleKeys = new double[n];
+            for (int i = 0; i < n; i++) {
+                if (!(keyArray[i] instanceof Double value)) {
+                    return argsortComparables(keyArray, parallel);
+                }
+                doubleKeys[i] = value;
+            }
+            return argsortInPlace(toSortableLongs(doubleKeys), parallel);
+        }
+        if (n > 0 && keyArray[0] instanceof Long) {
+            long[] longKeys = new long[n];
+            for (int i = 0; i < n; i++) {
+                if (!(keyArray[i] instanceof Long value)) {
+                    return argsortComparables(keyArray, parallel);
+                }
+                longKeys[i] = value;
+            }
+            return argsortInPlace(longKeys, parallel);
+        }
+        if (n > 0 && keyArray[0] instanceof Integer) {
+            int[] intKeys = new int[n];
+            for (int i = 0; i < n; i++) {
+                if (!(keyArray[i] instanceof Integer value)) {
+                    return argsortComparables(keyArray, parallel);
+                }
+                intKeys[i] = value;
+            }
+            return argsort(intKeys, parallel);
+        }
+        return argsortComparables(keyArray, parallel);
+    }
+
+    /**
+     * Applies a permutation to a list, as produced by one of the argsort functions.
+     * @param list The list to permute. Not modified.
+     * @param permutation The permutation to apply
+     * @param <E> The Type of the list
+     * @return A new list where the value at index i is the value at index permutation[i] of the input
+     * @throws IllegalArgumentException if the list and permutation have different lengths
+     */
+    public static <E> List<E> permuted(List<E> list, int[] permutation) {
+        checkLength(list.size(), permutation);
+        List<E> result = new ArrayList<>(permutation.length);
+        if (list instanceof RandomAccess) {
+            for (int index : permutation) {
+                result.add(list.get(index));
+            }
+        } else {
+            @SuppressWarnings("unchecked")
+            E[] array = (E[]) list.toArray();
+            for (int index : permutation) {
+                result.add(array[index]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array, as produced by one of the argsort functions.
+     * @param array The array to permute. Not modified.
+     * @param permutation The permutation to apply
+     * @return A new array where the value at index i is the value at index permutation[i] of the input
+     * @throws IllegalArgumentException if the array and permutation have different lengths
+     */
+    public static double[] permuted(double[] array, int[] permutation) {
+        checkLength(array.length, permutation);
+        double[] result = new double[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            result[i] = array[permutation[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array, as produced by one of the argsort functions.
+     * @param array The array to permute. Not modified.
+     * @param permutation The permutation to apply
+     * @return A new array where the value at index i is the value at index permutation[i] of the input
+     * @throws IllegalArgumentException if the array and permutation have different lengths
+     */
+    public static long[] permuted(long[] array, int[] permutation) {
+        checkLength(array.length, permutation);
+        long[] result = new long[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            result[i] = array[permutation[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array, as produced by one of the argsort functions.
+     * @param array The array to permute. Not modified.
+     * @param permutation The permutation to apply
+     * @return A new array where the value at index i is the value at index permutation[i] of the input
+     * @throws IllegalArgumentException if the array and permutation have different lengths
+     */
+    public static int[] permuted(int[] array, int[] permutation) {
+        checkLength(array.length, permutation);
+        int[] result = new int[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            result[i] = array[permutation[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array in place. Accepts double[], long[], int[] or any Object array, which makes it
+     * convenient for reordering a set of mixed-type columns.
+     * @param array The array to permute
+     * @param permutation The permutation to apply, as produced by one of the argsort functions
+     * @throws IllegalArgumentException if the array is not of a supported Type, or is the wrong length
+     */
+    public static void permuteInPlace(Object array, int[] permutation) {
+        if (array instanceof double[] doubles) {
+            System.arraycopy(permuted(doubles, permutation), 0, doubles, 0, doubles.length);
+        } else if (array instanceof long[] longs) {
+            System.arraycopy(permuted(longs, permutation), 0, longs, 0, longs.length);
+        } else if (array instanceof int[] ints) {
+            System.arraycopy(permuted(ints, permutation), 0, ints, 0, ints.length);
+        } else if (array instanceof Object[] objects) {
+            checkLength(objects.length, permutation);
+            Object[] copy = objects.clone();
+            for (int i = 0; i < permutation.length; i++) {
+                objects[i] = copy[permutation[i]];
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported column Type " + (array == null ? null : array.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Sorts pairs by the natural ordering of their first values, for inputs too large to hold in memory at once. The
+     * input is read in runs of at most maximumPairsInMemory pairs, each of which is sorted in memory and spilled to a
+     * temporary file. The returned Iterable lazily k-way merges those files, so the sorted result is streamed from disk
+     * rather than materialised. Like sortListsSimultaneously, the sort is stable.
+     * <p>
+     * A merge reads at most {@value SortingFunctions#MERGE_FAN_IN} runs at once, each through its own
+     * {@value SortingFunctions#MERGE_BUFFER_SIZE}-byte read buffer and holding one pair, and this is on top of the
+     * memory budget. If more runs than that are spilled, they are first merged in groups into longer runs, in as many
+     * intermediate passes as needed, so the number of files open at once stays bounded however large the input.
+     * </p>
+     * @param pairs The pairs to sort, for instance as produced by IterableFunctions.zipped(). Only iterated once.
+     * @param valueCodec How to write and read the first value of each pair
+     * @param companionCodec How to write and read the second value of each pair
+     * @param maximumPairsInMemory The memory budget, as the most pairs that will be held in memory at once
+     * @param <T> The Type of the values to sort by. Must be Comparable with itself
+     * @param <E> The arbitrary Type of the companion values
+     * @return The sorted pairs, which should be closed once finished with to delete the temporary files
+     * @throws IOException if the temporary files cannot be written
+     * @see IterableFunctions#sortListsSimultaneously(List, List)
+     */
+    public static <T extends Comparable<? super T>, E> ExternalSortResult<T, E> externalSortSimultaneously(Iterable<Pair<T, E>> pairs, Codec<T> valueCodec, Codec<E> companionCodec, int maximumPairsInMemory) throws IOException {
+        return externalSortSimultaneously(pairs, valueCodec, companionCodec, maximumPairsInMemory, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * As {@link SortingFunctions#externalSortSimultaneously(Iterable, Codec, Codec, int)}, but with the temporary files
+     * written to the given directory.
+     * @param temporaryDirectory The directory to spill sorted runs into
+     */
+    public static <T extends Comparable<? super T>, E> ExternalSortResult<T, E> externalSortSimultaneously(Iterable<Pair<T, E>> pairs, Codec<T> valueCodec, Codec<E> companionCodec, int maximumPairsInMemory, Path temporaryDirectory) throws IOException {
+        return externalSortSimultaneously(pairs, valueCodec, companionCodec, maximumPairsInMemory, temporaryDirectory, MERGE_FAN_IN);
+    }
+
+    static <T extends Comparable<? super T>, E> ExternalSortResult<T, E> externalSortSimultaneously(Iterable<Pair<T, E>> pairs, Codec<T> valueCodec, Codec<E> companionCodec, int maximumPairsInMemory, Path temporaryDirectory, int fanIn) throws IOException {
+        if (maximumPairsInMemory < 1) {
+            throw new IllegalArgumentException("Memory budget must allow at least one pair");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Merge fan-in must be at least 2");
+        }
+        List<Path> runFiles = new ArrayList<>();
+        List<T> values = new ArrayList<>();
+        List<E> companions = new ArrayList<>();
+        try {
+            for (Pair<T, E> pair : pairs) {
+                values.add(pair.first());
+                companions.add(pair.second());
+                if (values.size() == maximumPairsInMemory) {
+                    runFiles.add(writeRun(values, companions, valueCodec, companionCodec, temporaryDirectory));
+                    values.clear();
+                    companions.clear();
+                }
+            }
+            if (!values.isEmpty()) {
+                runFiles.add(writeRun(values, companions, valueCodec, companionCodec, temporaryDirectory));
+            }
+            values = null;
+            companions = null;
+            while (runFiles.size() > fanIn) {
+                List<Path> longerRuns = new ArrayList<>();
+                try {
+                    for (int i = 0; i < runFiles.size(); i += fanIn) {
+                        List<Path> group = runFiles.subList(i, Math.min(i + fanIn, runFiles.size()));
+                        longerRuns.add(group.size() == 1 ? group.get(0) : mergeRuns(group, valueCodec, companionCodec, temporaryDirectory));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    for (Path runFile : longerRuns) {
+                        Files.deleteIfExists(runFile);
+                    }
+                    throw e;
+                }
+                runFiles = longerRuns;
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Path runFile : runFiles) {
+                Files.deleteIfExists(runFile);
+            }
+            throw e;
+        }
+        return new ExternalSortResult<>(runFiles, valueCodec, companionCodec);
+    }
+
+    private static <T extends Comparable<? super T>, E> Path writeRun(List<T> values, List<E> companions, Codec<T> valueCodec, Codec<E> companionCodec, Path temporaryDirectory) throws IOException {
+        int[] permutation = argsort(values);
+        Path runFile = Files.createTempFile(temporaryDirectory, "sort-run-", ".bin");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile)))) {
+            output.writeLong(permutation.length);
+            for (int index : permutation) {
+                valueCodec.write(output, values.get(index));
+                companionCodec.write(output, companions.get(index));
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(runFile);
+            throw e;
+        }
+        return runFile;
+    }
+
+    /**
+     * Merges consecutive sorted runs into a single longer run, deleting them once it is written. Since readers break
+     * ties by their position in the group, the merged run is as stable as its parts.
+     */
+    private static <T extends Comparable<? super T>, E> Path mergeRuns(List<Path> runFiles, Codec<T> valueCodec, Codec<E> companionCodec, Path temporaryDirectory) throws IOException {
+        Path mergedFile = Files.createTempFile(temporaryDirectory, "sort-run-", ".bin");
+        List<DataInputStream> inputs = new ArrayList<>(runFiles.size());
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(mergedFile)))) {
+            PriorityQueue<RunReader<T, E>> queue = new PriorityQueue<>(runFiles.size());
+            long count = 0;
+            for (int i = 0; i < runFiles.size(); i++) {
+                DataInputStream input = openRun(runFiles.get(i));
+                inputs.add(input);
+                RunReader<T, E> reader = new RunReader<>(i, input, valueCodec, companionCodec);
+                count += reader.remaining;
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            output.writeLong(count);
+            while (!queue.isEmpty()) {
+                RunReader<T, E> reader = queue.poll();
+                valueCodec.write(output, reader.value);
+                companionCodec.write(output, reader.companion);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(mergedFile);
+            throw e;
+        } finally {
+            for (DataInputStream input : inputs) {
+                input.close();
+            }
+        }
+        for (Path runFile : runFiles) {
+            Files.deleteIfExists(runFile);
+        }
+        return mergedFile;
+    }
+
+    private static DataInputStream openRun(Path runFile) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile), MERGE_BUFFER_SIZE));
+    }
+
+    /**
+     * Maps a double to a long such that signed comparison of the longs agrees with
+     * {@link Double#compare(double, double)}. Negative doubles have every bit but the sign flipped, which reverses
+     * their otherwise backwards ordering. All NaNs are collapsed to the canonical NaN first, so they compare equal.
+     */
+    static long toSortableLong(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static long[] toSortableLongs(double[] values) {
+        long[] sortableLongs = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sortableLongs[i] = toSortableLong(values[i]);
+        }
+        return sortableLongs;
+    }
+
+    /**
+     * Argsorts keys that may be freely reordered, moving each key alongside its index.
+     */
+    private static int[] argsortInPlace(long[] keys, boolean parallel) {
+        int n = keys.length;
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        if (parallel && n > PARALLEL_SORT_GRANULARITY) {
+            ForkJoinPool.commonPool().invoke(new LongMergeSortTask(keys, indices, keys.clone(), indices.clone(), 0, n));
+        } else if (n >= RADIX_SORT_THRESHOLD) {
+            radixSort(keys, indices);
+        } else {
+            mergeSort(keys, indices, keys.clone(), indices.clone(), 0, n);
+        }
+        return indices;
+    }
+
+    /**
+     * Stable LSD radix sort of keys with their indices, one byte at a time from least to most significant. The sign bit
+     * is flipped when extracting digits, so that the unsigned digit order agrees with signed long order. Histograms for
+     * every digit are gathered in a single up-front pass, and any digit that is the same for every key is skipped, which
+     * for doubles of similar magnitude often skips the exponent bytes entirely.
+     */
+    static void radixSort(long[] keys, int[] indices) {
+        int n = keys.length;
+        if (n < 2) {
+            return;
+        }
+        int digits = Long.SIZE / RADIX_BITS;
+        int[][] counts = new int[digits][RADIX];
+        for (long key : keys) {
+            for (int digit = 0; digit < digits; digit++) {
+                counts[digit][digitOf(key, digit)]++;
+            }
+        }
+
+        long[] sourceKeys = keys, targetKeys = new long[n];
+        int[] sourceIndices = indices, targetIndices = new int[n];
+        for (int digit = 0; digit < digits; digit++) {
+            int[] offsets = counts[digit];
+            if (offsets[digitOf(sourceKeys[0], digit)] == n) {
+                continue;
+            }
+            int offset = 0;
+            for (int bucket = 0; bucket < RADIX; bucket++) {
+                int count = offsets[bucket];
+                offsets[bucket] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < n; i++) {
+                long key = sourceKeys[i];
+                int position = offsets[digitOf(key, digit)]++;
+                targetKeys[position] = key;
+                targetIndices[position] = sourceIndices[i];
+            }
+
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+            int[] swapIndices = sourceIndices;
+            sourceIndices = targetIndices;
+            targetIndices = swapIndices;
+        }
+
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, n);
+            System.arraycopy(sourceIndices, 0, indices, 0, n);
+        }
+    }
+
+    private static int digitOf(long key, int digit) {
+        return (int) ((key ^ Long.MIN_VALUE) >>> (digit * RADIX_BITS)) & (RADIX - 1);
+    }
+
+    /**
+     * Stable merge sort of keys[lo, hi) with their indices. The scratch arrays must hold the same contents as the main
+     * arrays over the range; the two pairs swap roles at each level of recursion so nothing is copied back.
+     */
+    private static void mergeSort(long[] keys, int[] indices, long[] scratchKeys, int[] scratchIndices, int lo, int hi) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, indices, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(scratchKeys, scratchIndices, keys, indices, lo, mid);
+        mergeSort(scratchKeys, scratchIndices, keys, indices, mid, hi);
+
+        if (scratchKeys[mid - 1] <= scratchKeys[mid]) {
+            System.arraycopy(scratchKeys, lo, keys, lo, hi - lo);
+            System.arraycopy(scratchIndices, lo, indices, lo, hi - lo);
+            return;
+        }
+        merge(scratchKeys, scratchIndices, keys, indices, lo, mid, hi);
+    }
+
+    private static void merge(long[] sourceKeys, int[] sourceIndices, long[] keys, int[] indices, int lo, int mid, int hi) {
+        int left = lo, right = mid;
+        for (int i = lo; i < hi; i++) {
+            if (right >= hi || (left < mid && sourceKeys[left] <= sourceKeys[right])) {
+                keys[i] = sourceKeys[left];
+                indices[i] = sourceIndices[left++];
+            } else {
+                keys[i] = sourceKeys[right];
+                indices[i] = sourceIndices[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(long[] keys, int[] indices, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            long key = keys[i];
+            int index = indices[i];
+            int j = i - 1;
+            while (j >= lo && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+
+    /**
+     * Partially reorders a slice of numbers so that each of the given positions holds the number that would be there if
+     * the slice were sorted, with smaller numbers before it and larger numbers after. NaNs are ordered last, as by
+     * {@link Arrays#sort(double[])}. This is introselect: quickselect with median-of-three pivots and three-way
+     * partitioning, descending only into the parts that hold a requested position, and falling back to a full sort of
+     * any part that partitions badly too many times. It runs in expected linear time, and at worst in n log(n).
+     * @param positions The positions to select, in ascending order, each within the slice
+     */
+    static void select(double[] numbers, int fromIndex, int toIndex, int[] positions) {
+        int lo = fromIndex, hi = toIndex;
+        // Move NaNs to the end, so that the partitioning below can use plain comparisons
+        while (lo < hi) {
+            if (Double.isNaN(numbers[lo])) {
+                double swap = numbers[lo];
+                numbers[lo] = numbers[--hi];
+                numbers[hi] = swap;
+            } else {
+                lo++;
+            }
+        }
+        int positionsEnd = positions.length;
+        while (positionsEnd > 0 && positions[positionsEnd - 1] >= hi) {
+            positionsEnd--;
+        }
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(1, hi - fromIndex)));
+        select(numbers, fromIndex, hi, positions, 0, positionsEnd, depthLimit);
+    }
+
+    private static void select(double[] numbers, int lo, int hi, int[] positions, int positionsFrom, int positionsTo, int depthLimit) {
+        while (positionsFrom < positionsTo) {
+            if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(numbers, lo, hi);
+                return;
+            }
+            if (depthLimit-- == 0) {
+                Arrays.sort(numbers, lo, hi);
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            double pivot = medianOfThree(numbers[lo], numbers[mid], numbers[hi - 1]);
+            // Three-way partition: [lo, less) < pivot, [less, i) == pivot, (greater, hi) > pivot
+            int less = lo, i = lo, greater = hi - 1;
+            while (i <= greater) {
+                double number = numbers[i];
+                if (number < pivot) {
+                    numbers[i++] = numbers[less];
+                    numbers[less++] = number;
+                } else if (number > pivot) {
+                    numbers[i] = numbers[greater];
+                    numbers[greater--] = number;
+                } else {
+                    i++;
+                }
+            }
+
+            int belowEnd = lowerBound(positions, positionsFrom, positionsTo, less);
+            int equalEnd = lowerBound(positions, belowEnd, positionsTo, greater + 1);
+            // Recurse into the side with fewer positions, and loop on the other
+            if (belowEnd - positionsFrom < positionsTo - equalEnd) {
+                select(numbers, lo, less, positions, positionsFrom, belowEnd, depthLimit);
+                lo = greater + 1;
+                positionsFrom = equalEnd;
+            } else {
+                select(numbers, greater + 1, hi, positions, equalEnd, positionsTo, depthLimit);
+                hi = less;
+                positionsTo = belowEnd;
+            }
+        }
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        if (a > b) {
+            double swap = a;
+            a = b;
+            b = swap;
+        }
+        return c < a ? a : Math.min(b, c);
+    }
+
+    /**
+     * @return The first index in the range of sorted positions whose position is at least the given one
+     */
+    private static int lowerBound(int[] positions, int from, int to, int position) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (positions[mid] < position) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static void insertionSort(double[] numbers, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            double number = numbers[i];
+            int j = i - 1;
+            while (j >= lo && numbers[j] > number) {
+                numbers[j + 1] = numbers[j];
+                j--;
+            }
+            numbers[j + 1] = number;
+        }
+    }
+
+    /**
+     * Finds the indices of the k largest or smallest numbers in an array, best first, using a bounded heap in
+     * O(n log(k)). Equal numbers are ranked by index, earliest first, and NaNs are skipped. The parallel version gives
+     * each fork/join leaf its own heap, sized for at most the leaf's numbers, and merges them pairwise, giving the same
+     * result as the sequential version.
+     * @throws IllegalArgumentException if k is negative
+     */
+    static int[] extremeIndices(double[] numbers, int k, boolean largest, boolean parallel) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        int capacity = Math.min(k, numbers.length);
+        BoundedHeap heap = parallel && numbers.length > PARALLEL_SORT_GRANULARITY
+                ? ForkJoinPool.commonPool().invoke(new BoundedHeapTask(numbers, 0, numbers.length, k, largest))
+                : new BoundedHeap(capacity, largest).offerAll(numbers, 0, numbers.length);
+        return heap.toIndicesBestFirst();
+    }
+
+    private static int[] argsortComparables(Object[] keys, boolean parallel) {
+        int n = keys.length;
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        if (parallel && n > PARALLEL_SORT_GRANULARITY) {
+            ForkJoinPool.commonPool().invoke(new ComparableMergeSortTask(keys, indices, keys.clone(), indices.clone(), 0, n));
+        } else {
+            mergeSort(keys, indices, keys.clone(), indices.clone(), 0, n);
+        }
+        return indices;
+    }
+
+    /**
+     * As {@link SortingFunctions#mergeSort(long[], int[], long[], int[], int, int)}, but for Comparable keys.
+     */
+    private static void mergeSort(Object[] keys, int[] indices, Object[] scratchKeys, int[] scratchIndices, int lo, int hi) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, indices, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(scratchKeys, scratchIndices, keys, indices, lo, mid);
+        mergeSort(scratchKeys, scratchIndices, keys, indices, mid, hi);
+
+        if (compare(scratchKeys[mid - 1], scratchKeys[mid]) <= 0) {
+            System.arraycopy(scratchKeys, lo, keys, lo, hi - lo);
+            System.arraycopy(scratchIndices, lo, indices, lo, hi - lo);
+            return;
+        }
+        merge(scratchKeys, scratchIndices, keys, indices, lo, mid, hi);
+    }
+
+    private static void merge(Object[] sourceKeys, int[] sourceIndices, Object[] keys, int[] indices, int lo, int mid, int hi) {
+        int left = lo, right = mid;
+        for (int i = lo; i < hi; i++) {
+            if (right >= hi || (left < mid && compare(sourceKeys[left], sourceKeys[right]) <= 0)) {
+                keys[i] = sourceKeys[left];
+                indices[i] = sourceIndices[left++];
+            } else {
+                keys[i] = sourceKeys[right];
+                indices[i] = sourceIndices[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(Object[] keys, int[] indices, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            Object key = keys[i];
+            int index = indices[i];
+            int j = i - 1;
+            while (j >= lo && compare(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object first, Object second) {
+        return ((Comparable<Object>) first).compareTo(second);
+    }
+
+    /**
+     * Fork/join version of {@link SortingFunctions#mergeSort(long[], int[], long[], int[], int, int)}. Halves are
+     * sorted in parallel down to {@link SortingFunctions#PARALLEL_SORT_GRANULARITY}, then merged as usual.
+     */
+    private static final class LongMergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys, scratchKeys;
+        private final int[] indices, scratchIndices;
+        private final int lo, hi;
+
+        LongMergeSortTask(long[] keys, int[] indices, long[] scratchKeys, int[] scratchIndices, int lo, int hi) {
+            this.keys = keys;
+            this.indices = indices;
+            this.scratchKeys = scratchKeys;
+            this.scratchIndices = scratchIndices;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_SORT_GRANULARITY) {
+                mergeSort(keys, indices, scratchKeys, scratchIndices, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new LongMergeSortTask(scratchKeys, scratchIndices, keys, indices, lo, mid),
+                    new LongMergeSortTask(scratchKeys, scratchIndices, keys, indices, mid, hi));
+
+            if (scratchKeys[mid - 1] <= scratchKeys[mid]) {
+                System.arraycopy(scratchKeys, lo, keys, lo, hi - lo);
+                System.arraycopy(scratchIndices, lo, indices, lo, hi - lo);
+                return;
+            }
+            merge(scratchKeys, scratchIndices, keys, indices, lo, mid, hi);
+        }
+    }
+
+    /**
+     * A heap of at most capacity numbers with their indices, holding the best seen so far with the worst at the root, so
+     * that each new number need only be compared with the root to know whether it belongs.
+     */
+    private static final class BoundedHeap {
+        private final double[] values;
+        private final int[] indices;
+        private final boolean largest;
+        private int size = 0;
+
+        BoundedHeap(int capacity, boolean largest) {
+            values = new double[capacity];
+            indices = new int[capacity];
+            this.largest = largest;
+        }
+
+        BoundedHeap offerAll(double[] numbers, int lo, int hi) {
+            for (int i = lo; i < hi; i++) {
+                offer(numbers[i], i);
+            }
+            return this;
+        }
+
+        void offer(double value, int index) {
+            if (Double.isNaN(value) || values.length == 0) {
+                return;
+            }
+            if (size < values.length) {
+                values[size] = value;
+                indices[size] = index;
+                siftUp(size++);
+            } else if (isWorse(values[0], indices[0], value, index)) {
+                values[0] = value;
+                indices[0] = index;
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * Combines two heaps, offering the entries of the smaller to the larger, which is first grown if it could not
+         * otherwise hold the best k of both.
+         */
+        BoundedHeap merge(BoundedHeap other, int k) {
+            BoundedHeap larger = values.length >= other.values.length ? this : other;
+            BoundedHeap smaller = larger == this ? other : this;
+            int capacity = Math.min(k, size + other.size);
+            if (larger.values.length < capacity) {
+                larger = larger.grownTo(capacity);
+            }
+            for (int i = 0; i < smaller.size; i++) {
+                larger.offer(smaller.values[i], smaller.indices[i]);
+            }
+            return larger;
+        }
+
+        private BoundedHeap grownTo(int capacity) {
+            BoundedHeap grown = new BoundedHeap(capacity, largest);
+            System.arraycopy(values, 0, grown.values, 0, size);
+            System.arraycopy(indices, 0, grown.indices, 0, size);
+            grown.size = size;
+            return grown;
+        }
+
+        /**
+         * Empties the heap, worst first, into its own arrays from the back, leaving them ordered best first.
+         */
+        int[] toIndicesBestFirst() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            return Arrays.copyOf(indices, size);
+        }
+
+        /**
+         * @return Whether the first entry ranks below the second
+         */
+        private boolean isWorse(double value, int index, double otherValue, int otherIndex) {
+            if (value != otherValue) {
+                return largest ? value < otherValue : value > otherValue;
+            }
+            return index > otherIndex;
+        }
+
+        private void siftUp(int child) {
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (!isWorse(values[child], indices[child], values[parent], indices[parent])) {
+                    return;
+                }
+                swap(child, parent);
+                child = parent;
+            }
+        }
+
+        private void siftDown(int parent, int end) {
+            while (true) {
+                int worst = parent, left = 2 * parent + 1, right = left + 1;
+                if (left < end && isWorse(values[left], indices[left], values[worst], indices[worst])) {
+                    worst = left;
+                }
+                if (right < end && isWorse(values[right], indices[right], values[worst], indices[worst])) {
+                    worst = right;
+                }
+                if (worst == parent) {
+                    return;
+                }
+                swap(parent, worst);
+                parent = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+            int index = indices[i];
+            indices[i] = indices[j];
+            indices[j] = index;
+        }
+    }
+
+    private static final class BoundedHeapTask extends RecursiveTask<BoundedHeap> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] numbers;
+        private final int lo, hi, k;
+        private final boolean largest;
+
+        BoundedHeapTask(double[] numbers, int lo, int hi, int k, boolean largest) {
+            this.numbers = numbers;
+            this.lo = lo;
+            this.hi = hi;
+            this.k = k;
+            this.largest = largest;
+        }
+
+        @Override
+        protected BoundedHeap compute() {
+            if (hi - lo <= PARALLEL_SORT_GRANULARITY) {
+                return new BoundedHeap(Math.min(k, hi - lo), largest).offerAll(numbers, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            BoundedHeapTask right = new BoundedHeapTask(numbers, mid, hi, k, largest);
+            right.fork();
+            BoundedHeap left = new BoundedHeapTask(numbers, lo, mid, k, largest).compute();
+            return left.merge(right.join(), k);
+        }
+    }
+
+    /**
+     * As {@link LongMergeSortTask}, but for Comparable keys.
+     */
+    private static final class ComparableMergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] keys, scratchKeys;
+        private final int[] indices, scratchIndices;
+        private final int lo, hi;
+
+        ComparableMergeSortTask(Object[] keys, int[] indices, Object[] scratchKeys, int[] scratchIndices, int lo, int hi) {
+            this.keys = keys;
+            this.indices = indices;
+            this.scratchKeys = scratchKeys;
+            this.scratchIndices = scratchIndices;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_SORT_GRANULARITY) {
+                mergeSort(keys, indices, scratchKeys, scratchIndices, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new ComparableMergeSortTask(scratchKeys, scratchIndices, keys, indices, lo, mid),
+                    new ComparableMergeSortTask(scratchKeys, scratchIndices, keys, indices, mid, hi));
+
+            if (compare(scratchKeys[mid - 1], scratchKeys[mid]) <= 0) {
+                System.arraycopy(scratchKeys, lo, keys, lo, hi - lo);
+                System.arraycopy(scratchIndices, lo, indices, lo, hi - lo);
+                return;
+            }
+            merge(scratchKeys, scratchIndices, keys, indices, lo, mid, hi);
+        }
+    }
+
+    /**
+     * The result of an external sort: a set of sorted runs on disk, which are merged on the fly whenever they are
+     * iterated. May be iterated any number of times until closed. Closing deletes the temporary files and closes any
+     * iterators still reading from them.
+     * @param <T> The Type of the values sorted by
+     * @param <E> The Type of the companion values
+     * @see SortingFunctions#externalSortSimultaneously(Iterable, Codec, Codec, int)
+     */
+    public static final class ExternalSortResult<T extends Comparable<? super T>, E> implements Iterable<Pair<T, E>>, AutoCloseable {
+        private final List<Path> runFiles;
+        private final Codec<T> valueCodec;
+        private final Codec<E> companionCodec;
+        private final Set<DataInputStream> openInputs = Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean closed = false;
+
+        private ExternalSortResult(List<Path> runFiles, Codec<T> valueCodec, Codec<E> companionCodec) {
+            this.runFiles = runFiles;
+            this.valueCodec = valueCodec;
+            this.companionCodec = companionCodec;
+        }
+
+        /**
+         * @return The number of sorted runs on disk, which are merged whenever the result is iterated. At most
+         * {@value SortingFunctions#MERGE_FAN_IN}, however many runs the input was first spilled into.
+         */
+        public int getRunCount() {
+            return runFiles.size();
+        }
+
+        @Override
+        public synchronized Iterator<Pair<T, E>> iterator() {
+            if (closed) {
+                throw new IllegalStateException("External sort result has already been closed");
+            }
+            PriorityQueue<RunReader<T, E>> queue = new PriorityQueue<>(Math.max(1, runFiles.size()));
+            try {
+                for (int i = 0; i < runFiles.size(); i++) {
+                    RunReader<T, E> reader = new RunReader<>(i, open(runFiles.get(i)), valueCodec, companionCodec);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    } else {
+                        release(reader.input);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !queue.isEmpty();
+                }
+
+                @Override
+                public Pair<T, E> next() {
+                    RunReader<T, E> reader = queue.poll();
+                    if (reader == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Pair<T, E> pair = new Pair<>(reader.value, reader.companion);
+                    try {
+                        if (reader.advance()) {
+                            queue.add(reader);
+                        } else {
+                            release(reader.input);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return pair;
+                }
+            };
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closed = true;
+            for (DataInputStream input : openInputs) {
+                input.close();
+            }
+            openInputs.clear();
+            for (Path runFile : runFiles) {
+                Files.deleteIfExists(runFile);
+            }
+        }
+
+        private synchronized DataInputStream open(Path runFile) throws IOException {
+            DataInputStream input = openRun(runFile);
+            openInputs.add(input);
+            return input;
+        }
+
+        private synchronized void release(DataInputStream input) throws IOException {
+            openInputs.remove(input);
+            input.close();
+        }
+    }
+
+    /**
+     * Reads one sorted run, holding its current head pair. Readers order by their head value, and then by run, so that
+     * equal values come out in the order they went in.
+     */
+    private static final class RunReader<T extends Comparable<? super T>, E> implements Comparable<RunReader<T, E>> {
+        private final int run;
+        private final DataInputStream input;
+        private final Codec<T> valueCodec;
+        private final Codec<E> companionCodec;
+        private long remaining;
+        private T value;
+        private E companion;
+
+        private RunReader(int run, DataInputStream input, Codec<T> valueCodec, Codec<E> companionCodec) throws IOException {
+            this.run = run;
+            this.input = input;
+            this.valueCodec = valueCodec;
+            this.companionCodec = companionCodec;
+            this.remaining = input.readLong();
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            value = valueCodec.read(input);
+            companion = companionCodec.read(input);
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunReader<T, E> other) {
+            int comparison = value.compareTo(other.value);
+            return comparison != 0 ? comparison : Integer.compare(run, other.run);
+        }
+    }
+
+    private static void checkLength(int length, int[] permutation) {
+        if (length != permutation.length) {
+            throw new IllegalArgumentException("Mismatched permutation length");
+        }
+    }
+}
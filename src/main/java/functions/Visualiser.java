@@ -23,10 +23,14 @@ import org.jfree.chart.axis.LogarithmicAxis;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.StackedXYAreaRenderer;
+import org.jfree.chart.renderer.xy.XYBarRenderer;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.data.xy.DefaultTableXYDataset;
+import org.jfree.data.xy.XYIntervalSeries;
+import org.jfree.data.xy.XYIntervalSeriesCollection;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
+import types.statistics.LogLinearHistogram;
 
 import java.awt.*;
 import java.io.File;
@@ -183,4 +187,45 @@ public final class Visualiser {
         }
     }
 
+    /**
+     * Draws a bar for each non-empty bucket of a histogram, spanning the bucket's range of values.
+     * @param logarithmic Whether to draw the value axis on a logarithmic scale, on which the buckets of a
+     *                    {@link LogLinearHistogram} have equal widths within each power of two
+     */
+    public static void drawHistogram(String title, LogLinearHistogram histogram, boolean logarithmic, String xAxisLabel) {
+        var series = new XYIntervalSeries(title);
+        for (LogLinearHistogram.Bucket bucket : histogram.getBuckets()) {
+            series.add(bucket.midpoint(), bucket.lowerBound(), bucket.upperBound(), bucket.count(), bucket.count(), bucket.count());
+        }
+        var dataset = new XYIntervalSeriesCollection();
+        dataset.addSeries(series);
+
+        var chart = ChartFactory.createXYBarChart(title, xAxisLabel, false, "Count", dataset, PlotOrientation.VERTICAL, false, false, false);
+        XYPlot plot = chart.getXYPlot();
+        var renderer = new XYBarRenderer();
+        renderer.setShadowVisible(false);
+        renderer.setDrawBarOutline(false);
+        plot.setRenderer(renderer);
+        plot.setBackgroundPaint(Color.white);
+
+        if (logarithmic) {
+            var axis = new LogarithmicAxis(xAxisLabel);
+            axis.setAllowNegativesFlag(true);
+            plot.setDomainAxis(axis);
+        }
+
+        chart.setAntiAlias(true);
+
+        try {
+            ChartUtils.saveChartAsJPEG(new File("Graph of " + title + ".jpg"), chart, 1000, 500);
+        }
+        catch (IOException ioe) {
+            ioe.printStackTrace();
+        }
+    }
+
+    public static void drawHistogram(String title, LogLinearHistogram histogram) {
+        drawHistogram(title, histogram, false, "");
+    }
+
 }
@@ -0,0 +1,353 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.columns;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A fixed-length column of doubles held outside the Java heap, indexed by long so that it can hold more than 2^31
+ * values. The values are either in direct memory or in a file mapped into memory, so the garbage collector never scans
+ * or copies them, and a mapped column can be far larger than the heap or even physical memory.
+ * <p>
+ * Neither kind of column can be freed explicitly. Direct memory is released only once the column is garbage collected,
+ * and until then counts against -XX:MaxDirectMemorySize, which defaults to the maximum heap size. So
+ * {@link DoubleColumn#allocate(long)} cannot in practice hold more than the heap could; only columns from
+ * {@link DoubleColumn#map(Path, boolean)} and {@link DoubleColumn#create(Path, long)} can exceed it.
+ * </p>
+ * <p>
+ * Since a single NIO buffer can span at most 2^31 - 1 bytes, a column is stored as a sequence of equal-sized chunks,
+ * each a little-endian DoubleBuffer. {@link DoubleColumn#asBuffers()} exposes those chunks directly, which is how the
+ * reductions in IterableFunctions run over a column at full speed. Slices share memory with the column they are taken
+ * from, so writes through either are visible through both.
+ * </p>
+ * <p>
+ * Columns are not thread-safe for writing, but any number of threads may read one at once.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class DoubleColumn {
+    /**
+     * The default number of doubles per chunk: 2^27, i.e. 1 GiB
+     */
+    public static final int DEFAULT_CHUNK_LENGTH = 1 << 27;
+
+    private final DoubleBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final long offset;
+    private final long length;
+    private final MappedByteBuffer[] mappings;
+
+    private DoubleColumn(DoubleBuffer[] chunks, int chunkShift, long offset, long length, MappedByteBuffer[] mappings) {
+        this.chunks = chunks;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.offset = offset;
+        this.length = length;
+        this.mappings = mappings;
+    }
+
+    /**
+     * Allocates a column of zeroes in direct memory.
+     * @throws IllegalArgumentException if the length is negative
+     */
+    public static DoubleColumn allocate(long length) {
+        return allocate(length, DEFAULT_CHUNK_LENGTH);
+    }
+
+    /**
+     * Allocates a column of zeroes in direct memory, split into chunks of a given size.
+     * @param chunkLength How many doubles each chunk holds. Must be a power of two, no more than the default.
+     * @throws IllegalArgumentException if the length is negative, or the chunk length is invalid
+     */
+    public static DoubleColumn allocate(long length, int chunkLength) {
+        int chunkShift = checkLengths(length, chunkLength);
+        DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(length, chunkShift)];
+        for (int i = 0; i < chunks.length; i++) {
+            int doubles = chunkSize(length, chunkShift, i);
+            chunks[i] = ByteBuffer.allocateDirect(doubles * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return new DoubleColumn(chunks, chunkShift, 0, length, null);
+    }
+
+    /**
+     * Copies the given values into a new column in direct memory.
+     */
+    public static DoubleColumn of(double... values) {
+        DoubleColumn column = allocate(values.length);
+        column.copyFrom(values, 0, 0, values.length);
+        return column;
+    }
+
+    /**
+     * Maps an existing file of little-endian doubles into memory as a column, without reading it. The file is not held
+     * open; the mapping stays valid until the column is garbage collected.
+     * @param writable Whether writes to the column should be written through to the file
+     * @throws IOException if the file cannot be opened or mapped
+     * @throws IllegalArgumentException if the file's size is not a whole number of doubles
+     */
+    public static DoubleColumn map(Path file, boolean writable) throws IOException {
+        try (FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % Double.BYTES != 0) {
+                throw new IllegalArgumentException("File size is not a whole number of doubles");
+            }
+            return map(channel, size / Double.BYTES, writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY);
+        }
+    }
+
+    /**
+     * Creates a file of the given number of doubles (or resizes an existing one), and maps it into memory as a
+     * writable column. Any newly created part of the file reads as zeroes.
+     * @throws IOException if the file cannot be created or mapped
+     * @throws IllegalArgumentException if the length is negative
+     */
+    public static DoubleColumn create(Path file, long length) throws IOException {
+        checkLengths(length, DEFAULT_CHUNK_LENGTH);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() > length * Double.BYTES) {
+                channel.truncate(length * Double.BYTES);
+            }
+            return map(channel, length, FileChannel.MapMode.READ_WRITE);
+        }
+    }
+
+    private static DoubleColumn map(FileChannel channel, long length, FileChannel.MapMode mode) throws IOException {
+        int chunkShift = Integer.numberOfTrailingZeros(DEFAULT_CHUNK_LENGTH);
+        int count = chunkCount(length, chunkShift);
+        DoubleBuffer[] chunks = new DoubleBuffer[count];
+        MappedByteBuffer[] mappings = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long position = ((long) i << chunkShift) * Double.BYTES;
+            mappings[i] = channel.map(mode, position, (long) chunkSize(length, chunkShift, i) * Double.BYTES);
+            chunks[i] = mappings[i].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return new DoubleColumn(chunks, chunkShift, 0, length, mappings);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the index is not within the column
+     */
+    public double get(long index) {
+        Objects.checkIndex(index, length);
+        long position = offset + index;
+        return chunks[(int) (position >>> chunkShift)].get((int) (position & chunkMask));
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the index is not within the column
+     * @throws java.nio.ReadOnlyBufferException if the column is mapped from a file read-only
+     */
+    public void set(long index, double value) {
+        Objects.checkIndex(index, length);
+        long position = offset + index;
+        chunks[(int) (position >>> chunkShift)].put((int) (position & chunkMask), value);
+    }
+
+    /**
+     * @return A view of the part of this column from fromIndex (inclusive) to toIndex (exclusive), sharing its memory
+     * @throws IndexOutOfBoundsException if the slice is not within the column
+     */
+    public DoubleColumn slice(long fromIndex, long toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, length);
+        return new DoubleColumn(chunks, chunkShift, offset + fromIndex, toIndex - fromIndex, mappings);
+    }
+
+    /**
+     * Copies values from an array into the column, a chunk at a time.
+     * @throws IndexOutOfBoundsException if the range is not within the array or the column
+     */
+    public void copyFrom(double[] source, int sourceIndex, long destinationIndex, int count) {
+        Objects.checkFromIndexSize(sourceIndex, count, source.length);
+        Objects.checkFromIndexSize(destinationIndex, count, length);
+        for (DoubleBuffer buffer : slice(destinationIndex, destinationIndex + count).asBuffers()) {
+            int chunkCount = buffer.remaining();
+            buffer.put(source, sourceIndex, chunkCount);
+            sourceIndex += chunkCount;
+        }
+    }
+
+    /**
+     * Copies values from the column into an array, a chunk at a time.
+     * @throws IndexOutOfBoundsException if the range is not within the column or the array
+     */
+    public void copyTo(long sourceIndex, double[] destination, int destinationIndex, int count) {
+        Objects.checkFromIndexSize(sourceIndex, count, length);
+        Objects.checkFromIndexSize(destinationIndex, count, destination.length);
+        for (DoubleBuffer buffer : slice(sourceIndex, sourceIndex + count).asBuffers()) {
+            int chunkCount = buffer.remaining();
+            buffer.get(destination, destinationIndex, chunkCount);
+            destinationIndex += chunkCount;
+        }
+    }
+
+    /**
+     * Copies values from another column into this one. The two may be slices of the same memory, and may overlap: the
+     * result is then as if the values were first copied somewhere else. Copies go a chunk-aligned segment at a time;
+     * overlapping copies walk the segments in whichever direction avoids overwriting values before they are read.
+     * @throws IndexOutOfBoundsException if either range is not within its column
+     */
+    public void copyFrom(DoubleColumn source, long sourceIndex, long destinationIndex, long count) {
+        Objects.checkFromIndexSize(sourceIndex, count, source.length);
+        Objects.checkFromIndexSize(destinationIndex, count, length);
+        if (source.chunks == chunks) {
+            long from = source.offset + sourceIndex, to = offset + destinationIndex;
+            if (from == to) {
+                return;
+            }
+            if (Math.abs(to - from) < count) {
+                copyOverlapping(from, to, count);
+                return;
+            }
+        }
+        List<DoubleBuffer> sourceBuffers = source.slice(sourceIndex, sourceIndex + count).asBuffers();
+        List<DoubleBuffer> destinationBuffers = slice(destinationIndex, destinationIndex + count).asBuffers();
+        int s = 0, d = 0;
+        while (s < sourceBuffers.size() && d < destinationBuffers.size()) {
+            DoubleBuffer from = sourceBuffers.get(s), to = destinationBuffers.get(d);
+            int step = Math.min(from.remaining(), to.remaining());
+            DoubleBuffer part = from.slice().limit(step);
+            to.put(part);
+            from.position(from.position() + step);
+            if (!from.hasRemaining()) {
+                s++;
+            }
+            if (!to.hasRemaining()) {
+                d++;
+            }
+        }
+    }
+
+    /**
+     * Copies count values from one absolute position in this column's chunks to another, where the two ranges overlap.
+     * Each segment lies within a single chunk on both sides, so is copied with one bulk put, which behaves like memmove
+     * when both sides are in the same chunk. Segments are walked backwards when copying to a later position, so that no
+     * value is overwritten before it has been read.
+     */
+    private void copyOverlapping(long from, long to, long count) {
+        boolean backwards = to > from;
+        long chunkLength = chunkMask + 1;
+        for (long done = 0; done < count; ) {
+            long remaining = count - done;
+            long sourcePosition, destinationPosition;
+            int step;
+            if (backwards) {
+                long sourceEnd = from + remaining, destinationEnd = to + remaining;
+                step = (int) Math.min(remaining, Math.min(((sourceEnd - 1) & chunkMask) + 1, ((destinationEnd - 1) & chunkMask) + 1));
+                sourcePosition = sourceEnd - step;
+                destinationPosition = destinationEnd - step;
+            } else {
+                sourcePosition = from + done;
+                destinationPosition = to + done;
+                step = (int) Math.min(remaining, Math.min(chunkLength - (sourcePosition & chunkMask), chunkLength - (destinationPosition & chunkMask)));
+            }
+            chunkSegment(destinationPosition, step).put(chunkSegment(sourcePosition, step));
+            done += step;
+        }
+    }
+
+    /**
+     * @return An independent buffer over size values of a single chunk, starting at an absolute position
+     */
+    private DoubleBuffer chunkSegment(long position, int size) {
+        int from = (int) (position & chunkMask);
+        return chunks[(int) (position >>> chunkShift)].duplicate().position(from).limit(from + size);
+    }
+
+    /**
+     * Copies the column into a new array on the heap.
+     * @throws IllegalStateException if the column is too long to fit in an array
+     */
+    public double[] toArray() {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Column is too long for an array");
+        }
+        double[] array = new double[(int) length];
+        copyTo(0, array, 0, array.length);
+        return array;
+    }
+
+    /**
+     * @return The column as a sequence of buffers over its chunks, in order, each independent of the others and of the
+     * column, with its position at zero and its limit at the end of the values belonging to the column.
+     */
+    public List<DoubleBuffer> asBuffers() {
+        List<DoubleBuffer> buffers = new ArrayList<>();
+        long position = offset, end = offset + length;
+        while (position < end) {
+            int chunk = (int) (position >>> chunkShift);
+            int from = (int) (position & chunkMask);
+            long chunkEnd = Math.min(end, ((long) chunk + 1) << chunkShift);
+            int to = from + (int) (chunkEnd - position);
+            buffers.add(chunks[chunk].duplicate().position(from).limit(to).slice());
+            position = chunkEnd;
+        }
+        return buffers;
+    }
+
+    /**
+     * For a column mapped from a file, writes any changes through to the storage device. Does nothing otherwise.
+     */
+    public void force() {
+        if (mappings != null) {
+            for (MappedByteBuffer mapping : mappings) {
+                if (!mapping.isReadOnly()) {
+                    mapping.force();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DoubleColumn(length=%d, chunks=%d, mapped=%s)".formatted(length, asBuffers().size(), mappings != null);
+    }
+
+    private static int checkLengths(long length, int chunkLength) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Column length must not be negative");
+        }
+        if (chunkLength < 1 || Integer.bitCount(chunkLength) != 1 || chunkLength > DEFAULT_CHUNK_LENGTH) {
+            throw new IllegalArgumentException("Chunk length must be a power of two, no more than " + DEFAULT_CHUNK_LENGTH);
+        }
+        return Integer.numberOfTrailingZeros(chunkLength);
+    }
+
+    private static int chunkCount(long length, int chunkShift) {
+        return (int) ((length + (1L << chunkShift) - 1) >>> chunkShift);
+    }
+
+    private static int chunkSize(long length, int chunkShift, int chunk) {
+        return (int) Math.min(1L << chunkShift, length - ((long) chunk << chunkShift));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.cursors;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A primitive double specialisation of {@link ZipCursor}. Reads either directly from a pair of arrays, or from a pair
+ * of Iterables of Numbers, which are unboxed as they are read. In neither case is anything allocated per step.
+ */
+public final class DoubleZipCursor {
+    private final double[] firstArray, secondArray;
+    private final Iterator<? extends Number> firstIterator, secondIterator;
+    private final int length;
+    private int index = -1;
+    private double first, second;
+    private boolean positioned = false;
+
+    /**
+     * Creates a cursor over the same-index values of two arrays, stopping at the end of the shorter.
+     */
+    public DoubleZipCursor(double[] firstArray, double[] secondArray) {
+        this.firstArray = firstArray;
+        this.secondArray = secondArray;
+        this.firstIterator = null;
+        this.secondIterator = null;
+        this.length = Math.min(firstArray.length, secondArray.length);
+    }
+
+    /**
+     * Creates a cursor over the same-index values of two Iterables, stopping at the end of the shorter.
+     */
+    public DoubleZipCursor(Iterable<? extends Number> firstIterable, Iterable<? extends Number> secondIterable) {
+        this.firstArray = null;
+        this.secondArray = null;
+        this.firstIterator = firstIterable.iterator();
+        this.secondIterator = secondIterable.iterator();
+        this.length = -1;
+    }
+
+    /**
+     * Moves the cursor to the next pair of values.
+     * @return true if the cursor now holds a pair of values, false if either input is exhausted
+     */
+    public boolean advance() {
+        if (firstArray != null) {
+            positioned = ++index < length;
+            if (positioned) {
+                first = firstArray[index];
+                second = secondArray[index];
+            } else {
+                index = length;
+            }
+        } else {
+            positioned = firstIterator.hasNext() && secondIterator.hasNext();
+            if (positioned) {
+                first = firstIterator.next().doubleValue();
+                second = secondIterator.next().doubleValue();
+            }
+        }
+        return positioned;
+    }
+
+    /**
+     * @return The current value from the first input
+     * @throws NoSuchElementException if the cursor has not been successfully advanced onto a pair of values
+     */
+    public double first() {
+        ZipCursor.checkPositioned(positioned);
+        return first;
+    }
+
+    /**
+     * @return The current value from the second input
+     * @throws NoSuchElementException if the cursor has not been successfully advanced onto a pair of values
+     */
+    public double second() {
+        ZipCursor.checkPositioned(positioned);
+        return second;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.cursors;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A reusable cursor over the same-index values of two Iterables. Rather than producing a new Pair for every step as
+ * zipped() does, the cursor is advanced in place and its current values are read off it, so a loop over two aligned
+ * series allocates nothing after the cursor itself. Typical use:
+ * <pre>
+ * ZipCursor&lt;Foo, Bar&gt; cursor = new ZipCursor&lt;&gt;(foos, bars);
+ * while (cursor.advance()) {
+ *   doStuff(cursor.first(), cursor.second());
+ * }
+ * </pre>
+ * As with zipped(), iteration stops at the end of the shorter input.
+ * @param <T> The Type of the first Iterable
+ * @param <E> The Type of the second Iterable
+ */
+public final class ZipCursor<T, E> {
+    private final Iterator<T> firstIterator;
+    private final Iterator<E> secondIterator;
+    private T first;
+    private E second;
+    private boolean positioned = false;
+
+    public ZipCursor(Iterable<T> firstIterable, Iterable<E> secondIterable) {
+        this.firstIterator = firstIterable.iterator();
+        this.secondIterator = secondIterable.iterator();
+    }
+
+    /**
+     * Moves the cursor to the next pair of values.
+     * @return true if the cursor now holds a pair of values, false if either input is exhausted
+     */
+    public boolean advance() {
+        if (firstIterator.hasNext() && secondIterator.hasNext()) {
+            first = firstIterator.next();
+            second = secondIterator.next();
+            positioned = true;
+        } else {
+            first = null;
+            second = null;
+            positioned = false;
+        }
+        return positioned;
+    }
+
+    /**
+     * @return The current value from the first Iterable
+     * @throws NoSuchElementException if the cursor has not been successfully advanced onto a pair of values
+     */
+    public T first() {
+        checkPositioned(positioned);
+        return first;
+    }
+
+    /**
+     * @return The current value from the second Iterable
+     * @throws NoSuchElementException if the cursor has not been successfully advanced onto a pair of values
+     */
+    public E second() {
+        checkPositioned(positioned);
+        return second;
+    }
+
+    static void checkPositioned(boolean positioned) {
+        if (!positioned) {
+            throw new NoSuchElementException("Cursor is not positioned on a pair of values");
+        }
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.sequences;
+
+import types.statistics.StatisticsAccumulator;
+import types.windows.DoubleWindow;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.*;
+
+/**
+ * A primitive double specialisation of {@link Seq}. Items are pushed through the stages as unboxed doubles, so a
+ * numeric pipeline from an array or buffer to a terminal statistic allocates nothing per item.
+ */
+@SuppressWarnings("unused")
+public final class DoubleSeq {
+    /**
+     * As {@link Seq.Source}, for primitive doubles.
+     */
+    @FunctionalInterface
+    interface Source {
+        boolean push(DoublePredicate sink);
+    }
+
+    private final Source source;
+    /**
+     * The array slice this sequence reads directly from, if any, so that reversal needs no buffer
+     */
+    private final double[] array;
+    private final int fromIndex, toIndex;
+
+    DoubleSeq(Source source) {
+        this(source, null, 0, 0);
+    }
+
+    private DoubleSeq(Source source, double[] array, int fromIndex, int toIndex) {
+        this.source = source;
+        this.array = array;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    public static DoubleSeq of(double... values) {
+        return of(values, 0, values.length);
+    }
+
+    /**
+     * @return A sequence over the slice of an array from fromIndex (inclusive) to toIndex (exclusive)
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public static DoubleSeq of(double[] values, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, values.length);
+        return new DoubleSeq(sink -> {
+            for (int i = fromIndex; i < toIndex; i++) {
+                if (!sink.test(values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }, values, fromIndex, toIndex);
+    }
+
+    /**
+     * @return A sequence over the remaining values of a buffer, as of each time the sequence is run. The buffer's
+     * position is not changed.
+     */
+    public static DoubleSeq of(DoubleBuffer values) {
+        return new DoubleSeq(sink -> {
+            for (int i = values.position(), limit = values.limit(); i < limit; i++) {
+                if (!sink.test(values.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * @return A sequence over the given numbers, unboxed as they are read
+     */
+    public static DoubleSeq of(Iterable<? extends Number> numbers) {
+        return new DoubleSeq(sink -> {
+            for (Number number : numbers) {
+                if (!sink.test(number.doubleValue())) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public DoubleSeq map(DoubleUnaryOperator mapper) {
+        return new DoubleSeq(sink -> source.push(value -> sink.test(mapper.applyAsDouble(value))));
+    }
+
+    public <R> Seq<R> mapToObj(DoubleFunction<? extends R> mapper) {
+        return new Seq<>(sink -> source.push(value -> sink.test(mapper.apply(value))));
+    }
+
+    public Seq<Double> boxed() {
+        return mapToObj(Double::valueOf);
+    }
+
+    public DoubleSeq filter(DoublePredicate predicate) {
+        return new DoubleSeq(sink -> source.push(value -> !predicate.test(value) || sink.test(value)));
+    }
+
+    /**
+     * As {@link Seq#limit(long)}.
+     * @throws IllegalArgumentException if maximumSize is negative
+     */
+    public DoubleSeq limit(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative");
+        }
+        return new DoubleSeq(sink -> {
+            if (maximumSize == 0) {
+                return true;
+            }
+            Downstream downstream = new Downstream(sink);
+            source.push(new DoublePredicate() {
+                private long remaining = maximumSize;
+
+                @Override
+                public boolean test(double value) {
+                    return downstream.test(value) && --remaining > 0;
+                }
+            });
+            return !downstream.stopped;
+        });
+    }
+
+    /**
+     * As {@link Seq#reversed()}. A sequence read directly from an array walks it backwards; any other sequence is first
+     * run into a buffer, each time the reversed sequence is run.
+     */
+    public DoubleSeq reversed() {
+        if (array != null) {
+            return new DoubleSeq(sink -> {
+                for (int i = toIndex - 1; i >= fromIndex; i--) {
+                    if (!sink.test(array[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+        return new DoubleSeq(sink -> {
+            double[] buffer = toArray();
+            for (int i = buffer.length - 1; i >= 0; i--) {
+                if (!sink.test(buffer[i])) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * As {@link Seq#followedBy(Seq)}: the values of this sequence, followed by those of another.
+     */
+    public DoubleSeq followedBy(DoubleSeq other) {
+        return new DoubleSeq(sink -> source.push(sink) && other.source.push(sink));
+    }
+
+    /**
+     * Combines the same-index values of this sequence and an array, stopping at the end of the shorter.
+     */
+    public DoubleSeq zip(double[] other, DoubleBinaryOperator combiner) {
+        return new DoubleSeq(sink -> {
+            Downstream downstream = new Downstream(sink);
+            source.push(new DoublePredicate() {
+                private int index = 0;
+
+                @Override
+                public boolean test(double value) {
+                    return index < other.length && downstream.test(combiner.applyAsDouble(value, other[index++]));
+                }
+            });
+            return !downstream.stopped;
+        });
+    }
+
+    /**
+     * Combines the same-index values of this sequence and an Iterable of numbers, stopping at the end of the shorter.
+     */
+    public DoubleSeq zip(Iterable<? extends Number> other, DoubleBinaryOperator combiner) {
+        return new DoubleSeq(sink -> {
+            Iterator<? extends Number> iterator = other.iterator();
+            Downstream downstream = new Downstream(sink);
+            source.push(value -> iterator.hasNext() && downstream.test(combiner.applyAsDouble(value, iterator.next().doubleValue())));
+            return !downstream.stopped;
+        });
+    }
+
+    /**
+     * As {@link Seq#inPairs(BiFunction)}, e.g. {@code inPairs((previous, next) -> next / previous - 1)} for the returns
+     * of a price series.
+     */
+    public DoubleSeq inPairs(DoubleBinaryOperator combiner) {
+        return new DoubleSeq(sink -> source.push(new DoublePredicate() {
+            private boolean started = false;
+            private double previous;
+
+            @Override
+            public boolean test(double value) {
+                double first = previous;
+                previous = value;
+                if (!started) {
+                    started = true;
+                    return true;
+                }
+                return sink.test(combiner.applyAsDouble(first, value));
+            }
+        }));
+    }
+
+    /**
+     * As {@link Seq#slidingWindows(int)}, with primitive windows.
+     * @throws IllegalArgumentException if windowSize is less than 1
+     */
+    public Seq<DoubleWindow> slidingWindows(int windowSize) {
+        Seq.checkWindowSize(windowSize);
+        return new Seq<>(sink -> {
+            DoubleWindow window = new DoubleWindow(windowSize);
+            return source.push(value -> {
+                window.push(value);
+                return !window.isFull() || sink.test(window);
+            });
+        });
+    }
+
+    /**
+     * As {@link Seq#tumblingWindows(int)}, with primitive windows.
+     * @throws IllegalArgumentException if windowSize is less than 1
+     */
+    public Seq<DoubleWindow> tumblingWindows(int windowSize) {
+        Seq.checkWindowSize(windowSize);
+        return new Seq<>(sink -> {
+            DoubleWindow window = new DoubleWindow(windowSize);
+            boolean exhausted = source.push(value -> {
+                window.push(value);
+                if (!window.isFull()) {
+                    return true;
+                }
+                boolean more = sink.test(window);
+                window.clear();
+                return more;
+            });
+            return exhausted && (window.size() == 0 || sink.test(window));
+        });
+    }
+
+    public void forEach(DoubleConsumer action) {
+        source.push(value -> {
+            action.accept(value);
+            return true;
+        });
+    }
+
+    public double[] toArray() {
+        final class Collector implements DoublePredicate {
+            private double[] values = new double[16];
+            private int size = 0;
+
+            @Override
+            public boolean test(double value) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+                return true;
+            }
+        }
+        Collector collector = new Collector();
+        source.push(collector);
+        return Arrays.copyOf(collector.values, collector.size);
+    }
+
+    public long getCount() {
+        final class Counter implements DoublePredicate {
+            private long count = 0;
+
+            @Override
+            public boolean test(double value) {
+                count++;
+                return true;
+            }
+        }
+        Counter counter = new Counter();
+        source.push(counter);
+        return counter.count;
+    }
+
+    /**
+     * Runs the sequence, folding its values into a single result from left to right.
+     */
+    public double reduce(double identity, DoubleBinaryOperator accumulator) {
+        final class Fold implements DoublePredicate {
+            private double result = identity;
+
+            @Override
+            public boolean test(double value) {
+                result = accumulator.applyAsDouble(result, value);
+                return true;
+            }
+        }
+        Fold fold = new Fold();
+        source.push(fold);
+        return fold.result;
+    }
+
+    /**
+     * Runs the sequence, summing its values with Neumaier compensation, so that rounding errors do not accumulate over
+     * long sequences. Once the sum has become infinite the compensation term is dropped.
+     */
+    public double getSum() {
+        final class CompensatedSum implements DoublePredicate {
+            private double sum = 0, compensation = 0;
+
+            @Override
+            public boolean test(double value) {
+                double total = sum + value;
+                if (Math.abs(sum) >= Math.abs(value)) {
+                    compensation += (sum - total) + value;
+                } else {
+                    compensation += (value - total) + sum;
+                }
+                sum = total;
+                return true;
+            }
+        }
+        CompensatedSum compensatedSum = new CompensatedSum();
+        source.push(compensatedSum);
+        return Double.isInfinite(compensatedSum.sum) ? compensatedSum.sum : compensatedSum.sum + compensatedSum.compensation;
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#getMinimum(Iterable)}: NaNs are skipped unless the first value is NaN.
+     * @return an Optional Double. Will be empty if the sequence is empty.
+     */
+    public Optional<Double> getMinimum() {
+        return extreme(true);
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#getMaximum(Iterable)}: NaNs are skipped unless the first value is NaN.
+     * @return an Optional Double. Will be empty if the sequence is empty.
+     */
+    public Optional<Double> getMaximum() {
+        return extreme(false);
+    }
+
+    /**
+     * @return an Optional Double. Will be empty if the sequence is empty.
+     */
+    public Optional<Double> getArithmeticMean() {
+        return getStatistics().getArithmeticMean();
+    }
+
+    /**
+     * Runs the sequence into a new {@link StatisticsAccumulator}, for when more than one statistic is needed.
+     */
+    public StatisticsAccumulator getStatistics() {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        source.push(value -> {
+            accumulator.add(value);
+            return true;
+        });
+        return accumulator;
+    }
+
+    private Optional<Double> extreme(boolean minimum) {
+        final class Extreme implements DoublePredicate {
+            private boolean started = false;
+            private double result;
+
+            @Override
+            public boolean test(double value) {
+                if (!started) {
+                    started = true;
+                    result = value;
+                } else if (minimum ? value < result : value > result) {
+                    result = value;
+                }
+                return true;
+            }
+        }
+        Extreme extreme = new Extreme();
+        source.push(extreme);
+        return extreme.started ? Optional.of(extreme.result) : Optional.empty();
+    }
+
+    /**
+     * As {@link Seq.Downstream}, for primitive doubles.
+     */
+    static final class Downstream implements DoublePredicate {
+        private final DoublePredicate sink;
+        boolean stopped = false;
+
+        Downstream(DoublePredicate sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public boolean test(double value) {
+            if (sink.test(value)) {
+                return true;
+            }
+            stopped = true;
+            return false;
+        }
+    }
+}
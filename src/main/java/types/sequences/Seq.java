@@ -0,0 +1,398 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.sequences;
+
+import types.tuples.Pair;
+import types.windows.Window;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * A lazy, fluent sequence offering the combinators of {@link functions.IterableFunctions} as chainable stages. Nothing
+ * is evaluated until a terminal operation is called.
+ * <p>
+ * Execution is push-based: the source loops over its items and pushes each one straight through every stage in turn,
+ * so however many stages are chained, a terminal operation runs as a single loop with no intermediate Iterators. Stages
+ * given a combining function, such as {@link Seq#zip(Iterable, BiFunction)} and {@link Seq#inPairs(BiFunction)}, also
+ * allocate no intermediate tuples. Numeric pipelines can carry on unboxed as a {@link DoubleSeq}, via
+ * {@link Seq#mapToDouble(ToDoubleFunction)}.
+ * </p>
+ * <p>
+ * A Seq can be run any number of times, provided its source can be iterated that many times. As in IterableFunctions,
+ * the window stages reuse a single window per run, so each window is only valid until the next is pushed.
+ * </p>
+ * @param <T> The Type of the items in the sequence
+ */
+@SuppressWarnings("unused")
+public final class Seq<T> {
+    /**
+     * Pushes each item of a sequence, in order, into a sink, until either the items run out or the sink returns false
+     * to ask for no more.
+     * @return true if the items ran out, or false if the sink stopped the push early
+     */
+    @FunctionalInterface
+    interface Source<T> {
+        boolean push(Predicate<? super T> sink);
+    }
+
+    private final Source<T> source;
+    /**
+     * The List this sequence reads directly from, if any, so that reversal needs no buffer
+     */
+    private final List<T> list;
+
+    Seq(Source<T> source) {
+        this(source, null);
+    }
+
+    private Seq(Source<T> source, List<T> list) {
+        this.source = source;
+        this.list = list;
+    }
+
+    /**
+     * @return A sequence over the items of the given Iterable. RandomAccess lists are read by index.
+     */
+    public static <T> Seq<T> of(Iterable<T> items) {
+        if (items instanceof RandomAccess && items instanceof List<T> randomAccessList) {
+            return new Seq<>(sink -> {
+                for (int i = 0, size = randomAccessList.size(); i < size; i++) {
+                    if (!sink.test(randomAccessList.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }, randomAccessList);
+        }
+        return new Seq<>(sink -> {
+            for (T item : items) {
+                if (!sink.test(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }, items instanceof List<T> otherList ? otherList : null);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> Seq<T> of(T... items) {
+        return of(Arrays.asList(items));
+    }
+
+    public static <T> Seq<T> empty() {
+        return new Seq<>(sink -> true);
+    }
+
+    public <R> Seq<R> map(Function<? super T, ? extends R> mapper) {
+        return new Seq<>(sink -> source.push(item -> sink.test(mapper.apply(item))));
+    }
+
+    public DoubleSeq mapToDouble(ToDoubleFunction<? super T> mapper) {
+        return new DoubleSeq(sink -> source.push(item -> sink.test(mapper.applyAsDouble(item))));
+    }
+
+    public Seq<T> filter(Predicate<? super T> predicate) {
+        return new Seq<>(sink -> source.push(item -> !predicate.test(item) || sink.test(item)));
+    }
+
+    /**
+     * @return A sequence over at most the first maximumSize items of this one. The source is not read any further.
+     * @throws IllegalArgumentException if maximumSize is negative
+     */
+    public Seq<T> limit(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative");
+        }
+        return new Seq<>(sink -> {
+            if (maximumSize == 0) {
+                return true;
+            }
+            Downstream<T> downstream = new Downstream<>(sink);
+            source.push(new Predicate<T>() {
+                private long remaining = maximumSize;
+
+                @Override
+                public boolean test(T item) {
+                    return downstream.test(item) && --remaining > 0;
+                }
+            });
+            return !downstream.stopped;
+        });
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#reversed(java.util.List)}. A sequence read directly from a List walks it
+     * backwards; any other sequence is first run into a buffer, each time the reversed sequence is run.
+     */
+    public Seq<T> reversed() {
+        if (list != null) {
+            return new Seq<>(sink -> {
+                ListIterator<T> iterator = list.listIterator(list.size());
+                while (iterator.hasPrevious()) {
+                    if (!sink.test(iterator.previous())) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+        return new Seq<>(sink -> {
+            List<T> buffer = toList();
+            for (int i = buffer.size() - 1; i >= 0; i--) {
+                if (!sink.test(buffer.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Concatenates two sequences: the items of this sequence, followed by those of another. Unlike
+     * {@link Seq#stitched(Iterable[])}, the items are not interleaved.
+     */
+    public Seq<T> followedBy(Seq<? extends T> other) {
+        return new Seq<>(sink -> source.push(sink) && other.source.push(sink));
+    }
+
+    /**
+     * As {@link Seq#followedBy(Seq)}, for an Iterable.
+     */
+    public Seq<T> followedBy(Iterable<? extends T> other) {
+        return followedBy(of(other));
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#stitched(Iterable, Iterable[])}, with this sequence first: takes one item
+     * from this sequence, then one from each of the Iterables in turn, and then returns to this sequence. Stops as soon
+     * as the next input in the cycle has no more items, so not every item of every input is necessarily seen.
+     */
+    @SafeVarargs
+    public final Seq<T> stitched(Iterable<? extends T>... others) {
+        return new Seq<>(sink -> {
+            List<Iterator<? extends T>> iterators = new ArrayList<>(others.length);
+            for (Iterable<? extends T> other : others) {
+                iterators.add(other.iterator());
+            }
+            Downstream<T> downstream = new Downstream<>(sink);
+            source.push(item -> {
+                if (!downstream.test(item)) {
+                    return false;
+                }
+                for (Iterator<? extends T> iterator : iterators) {
+                    if (!iterator.hasNext() || !downstream.test(iterator.next())) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            return !downstream.stopped;
+        });
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#zipped(Iterable, Iterable)}, stopping at the end of the shorter input.
+     * Allocates a Pair per item; prefer {@link Seq#zip(Iterable, BiFunction)} where the pair is immediately consumed.
+     */
+    public <E> Seq<Pair<T, E>> zip(Iterable<E> other) {
+        return zip(other, Pair::new);
+    }
+
+    /**
+     * Combines the same-index items of this sequence and an Iterable, stopping at the end of the shorter.
+     */
+    public <E, R> Seq<R> zip(Iterable<E> other, BiFunction<? super T, ? super E, ? extends R> combiner) {
+        return new Seq<>(sink -> {
+            Iterator<E> iterator = other.iterator();
+            Downstream<R> downstream = new Downstream<>(sink);
+            source.push(item -> iterator.hasNext() && downstream.test(combiner.apply(item, iterator.next())));
+            return !downstream.stopped;
+        });
+    }
+
+    /**
+     * As {@link Seq#zip(Iterable, BiFunction)}, combining each pair of items into a primitive double.
+     */
+    public <E> DoubleSeq zipToDouble(Iterable<E> other, ToDoubleBiFunction<? super T, ? super E> combiner) {
+        return new DoubleSeq(sink -> {
+            Iterator<E> iterator = other.iterator();
+            DoubleSeq.Downstream downstream = new DoubleSeq.Downstream(sink);
+            source.push(item -> iterator.hasNext() && downstream.test(combiner.applyAsDouble(item, iterator.next())));
+            return !downstream.stopped;
+        });
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#inPairs(Iterable)}. Allocates a Pair per item; prefer
+     * {@link Seq#inPairs(BiFunction)} where the pair is immediately consumed.
+     */
+    public Seq<Pair<T, T>> inPairs() {
+        return inPairs(Pair::new);
+    }
+
+    /**
+     * Combines every consecutive pair of items, earlier item first. Sequences of fewer than 2 items give no results.
+     */
+    public <R> Seq<R> inPairs(BiFunction<? super T, ? super T, ? extends R> combiner) {
+        return new Seq<>(sink -> source.push(new Predicate<T>() {
+            private boolean started = false;
+            private T previous;
+
+            @Override
+            public boolean test(T item) {
+                T first = previous;
+                previous = item;
+                if (!started) {
+                    started = true;
+                    return true;
+                }
+                return sink.test(combiner.apply(first, item));
+            }
+        }));
+    }
+
+    /**
+     * As {@link Seq#inPairs(BiFunction)}, combining each pair of items into a primitive double.
+     */
+    public DoubleSeq inPairsToDouble(ToDoubleBiFunction<? super T, ? super T> combiner) {
+        return new DoubleSeq(sink -> source.push(new Predicate<T>() {
+            private boolean started = false;
+            private T previous;
+
+            @Override
+            public boolean test(T item) {
+                T first = previous;
+                previous = item;
+                if (!started) {
+                    started = true;
+                    return true;
+                }
+                return sink.test(combiner.applyAsDouble(first, item));
+            }
+        }));
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#slidingWindows(Iterable, int)}.
+     * @throws IllegalArgumentException if windowSize is less than 1
+     */
+    public Seq<Window<T>> slidingWindows(int windowSize) {
+        checkWindowSize(windowSize);
+        return new Seq<>(sink -> {
+            Window<T> window = new Window<>(windowSize);
+            return source.push(item -> {
+                window.push(item);
+                return !window.isFull() || sink.test(window);
+            });
+        });
+    }
+
+    /**
+     * As {@link functions.IterableFunctions#tumblingWindows(Iterable, int)}.
+     * @throws IllegalArgumentException if windowSize is less than 1
+     */
+    public Seq<Window<T>> tumblingWindows(int windowSize) {
+        checkWindowSize(windowSize);
+        return new Seq<>(sink -> {
+            Window<T> window = new Window<>(windowSize);
+            boolean exhausted = source.push(item -> {
+                window.push(item);
+                if (!window.isFull()) {
+                    return true;
+                }
+                boolean more = sink.test(window);
+                window.clear();
+                return more;
+            });
+            return exhausted && (window.size() == 0 || sink.test(window));
+        });
+    }
+
+    /**
+     * Runs the sequence, performing an action on each item.
+     */
+    public void forEach(Consumer<? super T> action) {
+        source.push(item -> {
+            action.accept(item);
+            return true;
+        });
+    }
+
+    /**
+     * Runs the sequence into a new List.
+     */
+    public List<T> toList() {
+        List<T> result = new ArrayList<>();
+        source.push(result::add);
+        return result;
+    }
+
+    /**
+     * Runs the sequence, counting its items.
+     */
+    public long getCount() {
+        return mapToDouble(item -> 0).getCount();
+    }
+
+    /**
+     * Runs the sequence, folding its items into a single result from left to right.
+     */
+    public <R> R reduce(R identity, BiFunction<R, ? super T, R> accumulator) {
+        final class Fold implements Predicate<T> {
+            private R result = identity;
+
+            @Override
+            public boolean test(T item) {
+                result = accumulator.apply(result, item);
+                return true;
+            }
+        }
+        Fold fold = new Fold();
+        source.push(fold);
+        return fold.result;
+    }
+
+    static void checkWindowSize(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1");
+        }
+    }
+
+    /**
+     * Wraps a sink, recording whether it asked to stop, so that stages which can end a push themselves (such as zip
+     * and limit) can tell the two cases apart.
+     */
+    static final class Downstream<T> implements Predicate<T> {
+        private final Predicate<? super T> sink;
+        boolean stopped = false;
+
+        Downstream(Predicate<? super T> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public boolean test(T item) {
+            if (sink.test(item)) {
+                return true;
+            }
+            stopped = true;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import java.util.Optional;
+
+/**
+ * The exponentially weighted moving means, variances and covariance of a pair of aligned streams of numbers, such as
+ * the returns of an asset and of its benchmark. Weights are as for {@link ExponentialMovingStatistics}, and each update
+ * takes constant time without allocating.
+ * <p>
+ * Pairs in which either number is NaN are ignored.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class ExponentialMovingCovariance {
+    private final double alpha;
+    private long count = 0;
+    private double firstMean = 0, secondMean = 0;
+    private double firstVariance = 0, secondVariance = 0;
+    private double covariance = 0;
+
+    /**
+     * Creates empty statistics.
+     * @param alpha The smoothing factor: the weight of each new pair, from 0 (exclusive) to 1 (inclusive)
+     * @throws IllegalArgumentException if alpha is not within (0, 1]
+     * @see ExponentialMovingStatistics#alphaForHalfLife(double)
+     * @see ExponentialMovingStatistics#alphaForSpan(double)
+     */
+    public ExponentialMovingCovariance(double alpha) {
+        this.alpha = ExponentialMovingStatistics.checkAlpha(alpha);
+    }
+
+    /**
+     * Adds a pair of same-period numbers to the statistics. Pairs containing a NaN are ignored.
+     */
+    public void add(double first, double second) {
+        if (Double.isNaN(first) || Double.isNaN(second)) {
+            return;
+        }
+        if (count++ == 0) {
+            firstMean = first;
+            secondMean = second;
+            return;
+        }
+        double firstDelta = first - firstMean, secondDelta = second - secondMean;
+        firstMean += alpha * firstDelta;
+        secondMean += alpha * secondDelta;
+        double decay = 1 - alpha;
+        firstVariance = decay * (firstVariance + alpha * firstDelta * firstDelta);
+        secondVariance = decay * (secondVariance + alpha * secondDelta * secondDelta);
+        covariance = decay * (covariance + alpha * firstDelta * secondDelta);
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * @return How many pairs have been added, not counting those containing NaNs
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public Optional<Double> getFirstMean() {
+        return count == 0 ? Optional.empty() : Optional.of(firstMean);
+    }
+
+    public Optional<Double> getSecondMean() {
+        return count == 0 ? Optional.empty() : Optional.of(secondMean);
+    }
+
+    public Optional<Double> getFirstVariance() {
+        return count == 0 ? Optional.empty() : Optional.of(firstVariance);
+    }
+
+    public Optional<Double> getSecondVariance() {
+        return count == 0 ? Optional.empty() : Optional.of(secondVariance);
+    }
+
+    /**
+     * @return The exponentially weighted moving covariance. Will be empty if nothing has been added.
+     */
+    public Optional<Double> getCovariance() {
+        return count == 0 ? Optional.empty() : Optional.of(covariance);
+    }
+
+    /**
+     * @return The covariance divided by the product of the standard deviations. Will be empty if nothing has been
+     * added, and NaN if either stream has no variance.
+     */
+    public Optional<Double> getCorrelation() {
+        if (count == 0) {
+            return Optional.empty();
+        }
+        double denominator = Math.sqrt(firstVariance * secondVariance);
+        return Optional.of(denominator == 0 ? Double.NaN : covariance / denominator);
+    }
+
+    /**
+     * @return The beta of the first stream against the second: the covariance divided by the variance of the second.
+     * Will be empty if nothing has been added, and NaN if the second stream has no variance.
+     */
+    public Optional<Double> getBeta() {
+        if (count == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(secondVariance == 0 ? Double.NaN : covariance / secondVariance);
+    }
+
+    /**
+     * Forgets everything added so far.
+     */
+    public void clear() {
+        count = 0;
+        firstMean = secondMean = 0;
+        firstVariance = secondVariance = 0;
+        covariance = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialMovingCovariance(alpha=%s, count=%d, covariance=%s, correlation=%s)".formatted(
+                alpha, count, getCovariance().orElse(Double.NaN), getCorrelation().orElse(Double.NaN));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import java.util.Optional;
+
+/**
+ * The exponentially weighted moving mean and variance of a stream of numbers, updated in constant time and without
+ * allocating as each number arrives. Each new number is given weight alpha, and the weight of everything before it
+ * decays by a factor of 1 - alpha. The first number seeds the mean, with a variance of zero. Updates use the
+ * incremental form given by Finch, "Incremental calculation of weighted mean and variance" (2009).
+ * <p>
+ * NaNs are ignored, so gaps in a series leave the statistics where they were.
+ * </p>
+ * @see ExponentialMovingCovariance
+ */
+@SuppressWarnings("unused")
+public final class ExponentialMovingStatistics {
+    private final double alpha;
+    private long count = 0;
+    private double mean = 0;
+    private double variance = 0;
+
+    /**
+     * Creates empty statistics.
+     * @param alpha The smoothing factor: the weight of each new number, from 0 (exclusive) to 1 (inclusive)
+     * @throws IllegalArgumentException if alpha is not within (0, 1]
+     */
+    public ExponentialMovingStatistics(double alpha) {
+        this.alpha = checkAlpha(alpha);
+    }
+
+    /**
+     * @return The smoothing factor under which the weight of a number halves after every halfLife further numbers
+     * @throws IllegalArgumentException if halfLife is not positive
+     */
+    public static double alphaForHalfLife(double halfLife) {
+        if (!(halfLife > 0)) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        return -Math.expm1(-Math.log(2) / halfLife);
+    }
+
+    /**
+     * @return The smoothing factor conventionally used for an N-period EWMA, 2 / (span + 1)
+     * @throws IllegalArgumentException if span is less than 1
+     */
+    public static double alphaForSpan(double span) {
+        if (!(span >= 1)) {
+            throw new IllegalArgumentException("Span must be at least 1");
+        }
+        return 2 / (span + 1);
+    }
+
+    static double checkAlpha(double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("Smoothing factor must be within (0, 1]");
+        }
+        return alpha;
+    }
+
+    /**
+     * Adds a number to the statistics. NaNs are ignored.
+     */
+    public void add(double number) {
+        if (Double.isNaN(number)) {
+            return;
+        }
+        if (count++ == 0) {
+            mean = number;
+            return;
+        }
+        double delta = number - mean;
+        mean += alpha * delta;
+        variance = (1 - alpha) * (variance + alpha * delta * delta);
+    }
+
+    /**
+     * Adds every number in the given Iterable to the statistics, in order.
+     */
+    public void addAll(Iterable<? extends Number> numbers) {
+        for (Number number : numbers) {
+            add(number.doubleValue());
+        }
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * @return How many numbers have been added, not counting NaNs
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The exponentially weighted moving average. Will be empty if nothing has been added.
+     */
+    public Optional<Double> getMean() {
+        return count == 0 ? Optional.empty() : Optional.of(mean);
+    }
+
+    /**
+     * @return The exponentially weighted moving variance. Will be empty if nothing has been added.
+     */
+    public Optional<Double> getVariance() {
+        return count == 0 ? Optional.empty() : Optional.of(variance);
+    }
+
+    /**
+     * @return The square root of {@link ExponentialMovingStatistics#getVariance()}
+     */
+    public Optional<Double> getStandardDeviation() {
+        return getVariance().map(Math::sqrt);
+    }
+
+    /**
+     * Forgets everything added so far.
+     */
+    public void clear() {
+        count = 0;
+        mean = 0;
+        variance = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialMovingStatistics(alpha=%s, count=%d, mean=%s, variance=%s)".formatted(
+                alpha, count, getMean().orElse(Double.NaN), getVariance().orElse(Double.NaN));
+    }
+}
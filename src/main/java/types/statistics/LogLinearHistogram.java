@@ -0,0 +1,449 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-memory histogram over a high dynamic range of values, in the style of HdrHistogram. Each power of two between
+ * the lowest discernible and highest trackable magnitudes is split into 2^precisionBits equal-width buckets, so every
+ * bucket's width is a fixed fraction of the values it holds. Reporting a bucket by its midpoint therefore gives a
+ * relative error of at most 2^-(precisionBits + 1): about 0.4% for the default of 7 bits. Bucket indices are read
+ * straight off the bits of a double, so recording a value costs a few bit operations and one atomic increment.
+ * <p>
+ * Negative values are bucketed by magnitude in the same way, so distributions of returns as well as latencies can be
+ * recorded. Values smaller in magnitude than the lowest discernible value are counted in a single zero bucket, and
+ * values larger in magnitude than the highest trackable value are counted in the outermost buckets. NaNs are ignored.
+ * </p>
+ * <p>
+ * Recording is lock-free and safe from any number of threads. To keep threads from contending for the same counters,
+ * the counts are striped across several arrays, with each thread recording into one chosen by its id; queries sum the
+ * stripes. Queries made while other threads are recording see a consistent count for each bucket, but not necessarily
+ * a single instant across all buckets.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class LogLinearHistogram {
+    public static final int DEFAULT_PRECISION_BITS = 7;
+    private static final int MAXIMUM_PRECISION_BITS = 20;
+    private static final int SERIAL_FORMAT = 0x4C4C4801;
+
+    private final double lowestDiscernibleValue, highestTrackableValue;
+    private final int precisionBits;
+    private final int shift;
+    private final long lowestKey, highestKey;
+    private final int zeroIndex;
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Creates an empty histogram with the default precision, striped for the number of available processors.
+     * @param lowestDiscernibleValue The smallest magnitude to distinguish from zero
+     * @param highestTrackableValue The largest magnitude to distinguish from its neighbours
+     * @throws IllegalArgumentException if the lowest value is not positive, or the highest is not greater than it
+     */
+    public LogLinearHistogram(double lowestDiscernibleValue, double highestTrackableValue) {
+        this(lowestDiscernibleValue, highestTrackableValue, DEFAULT_PRECISION_BITS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an empty histogram.
+     * @param lowestDiscernibleValue The smallest magnitude to distinguish from zero
+     * @param highestTrackableValue The largest magnitude to distinguish from its neighbours
+     * @param precisionBits How many bits of each value's mantissa to keep, from 1 to 20. Each extra bit halves the
+     *                      relative error and doubles the memory used.
+     * @param stripes How many threads are expected to record at once. Rounded up to a power of two; 1 for a histogram
+     *                only ever recorded into by a single thread.
+     * @throws IllegalArgumentException if the range, precision or number of stripes is invalid
+     */
+    public LogLinearHistogram(double lowestDiscernibleValue, double highestTrackableValue, int precisionBits, int stripes) {
+        if (!(lowestDiscernibleValue > 0 && highestTrackableValue > lowestDiscernibleValue) || Double.isInfinite(highestTrackableValue)) {
+            throw new IllegalArgumentException("Histogram range must be positive, finite and non-empty");
+        }
+        if (precisionBits < 1 || precisionBits > MAXIMUM_PRECISION_BITS) {
+            throw new IllegalArgumentException("Histogram precision must be from 1 to " + MAXIMUM_PRECISION_BITS + " bits");
+        }
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Histogram must have at least 1 stripe");
+        }
+        this.lowestDiscernibleValue = lowestDiscernibleValue;
+        this.highestTrackableValue = highestTrackableValue;
+        this.precisionBits = precisionBits;
+        shift = 52 - precisionBits;
+        lowestKey = keyOf(lowestDiscernibleValue);
+        highestKey = keyOf(highestTrackableValue);
+        long bucketsPerSign = highestKey - lowestKey + 1;
+        if (2 * bucketsPerSign + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Histogram range is too wide for its precision");
+        }
+        zeroIndex = (int) bucketsPerSign;
+
+        int stripeCount = Integer.highestOneBit(stripes - 1) << 1;
+        stripeCount = stripes == 1 ? 1 : stripeCount;
+        this.stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new AtomicLongArray(2 * zeroIndex + 1);
+        }
+        stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * A range of values and how many recorded values fell within it. Values at the lower bound belong to the bucket;
+     * values at the upper bound belong to the next.
+     */
+    public record Bucket(double lowerBound, double upperBound, long count) {
+        /**
+         * @return The midpoint of the bucket, which is how the bucket's values are reported
+         */
+        public double midpoint() {
+            return lowerBound + (upperBound - lowerBound) / 2;
+        }
+    }
+
+    /**
+     * Records a single value. NaNs are ignored.
+     */
+    public void record(double value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records a value as if it had been recorded a number of times.
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public void record(double value, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative");
+        }
+        if (Double.isNaN(value) || count == 0) {
+            return;
+        }
+        stripe().getAndAdd(indexOf(value), count);
+    }
+
+    /**
+     * Records every number in the given Iterable.
+     */
+    public void recordAll(Iterable<? extends Number> numbers) {
+        AtomicLongArray stripe = stripe();
+        for (Number number : numbers) {
+            double value = number.doubleValue();
+            if (!Double.isNaN(value)) {
+                stripe.getAndIncrement(indexOf(value));
+            }
+        }
+    }
+
+    /**
+     * Records every number in the given array.
+     */
+    public void recordAll(double[] numbers) {
+        AtomicLongArray stripe = stripe();
+        for (double value : numbers) {
+            if (!Double.isNaN(value)) {
+                stripe.getAndIncrement(indexOf(value));
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of another histogram to this one. The other histogram is not modified.
+     * @param other The histogram to merge into this one
+     * @return This histogram
+     * @throws IllegalArgumentException if the histograms have different ranges or precisions
+     */
+    public LogLinearHistogram combine(LogLinearHistogram other) {
+        if (!hasSameBucketsAs(other)) {
+            throw new IllegalArgumentException("Mismatched histogram configurations");
+        }
+        long[] otherCounts = other.getCounts();
+        AtomicLongArray stripe = stripe();
+        for (int i = 0; i < otherCounts.length; i++) {
+            if (otherCounts[i] != 0) {
+                stripe.getAndAdd(i, otherCounts[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Resets every count to zero.
+     */
+    public void clear() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < stripe.length(); i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    public double getLowestDiscernibleValue() {
+        return lowestDiscernibleValue;
+    }
+
+    public double getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    /**
+     * @return The largest error of a reported value, relative to the true value, for values within the trackable range
+     */
+    public double getRelativeError() {
+        return Math.scalb(1d, -(precisionBits + 1));
+    }
+
+    /**
+     * @return How many values have been recorded, not counting NaNs
+     */
+    public long getCount() {
+        long count = 0;
+        for (long bucketCount : getCounts()) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the arithmetic mean of the recorded values, reporting each value by the midpoint of its bucket.
+     * @return An Optional Double. Will be empty if nothing has been recorded.
+     */
+    public Optional<Double> getArithmeticMean() {
+        long[] counts = getCounts();
+        long count = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                count += counts[i];
+                sum += counts[i] * midpointOf(i);
+            }
+        }
+        return count == 0 ? Optional.empty() : Optional.of(sum / count);
+    }
+
+    /**
+     * Estimates a quantile of the recorded values: the midpoint of the bucket holding the value at that rank.
+     * @param fraction The quantile to estimate, from 0 to 1, e.g. 0.999 for p99.9
+     * @return An Optional Double. Will be empty if nothing has been recorded.
+     * @throws IllegalArgumentException if the fraction is not between 0 and 1
+     */
+    public Optional<Double> getQuantile(double fraction) {
+        return getQuantiles(fraction).map(quantiles -> quantiles[0]);
+    }
+
+    /**
+     * As {@link LogLinearHistogram#getQuantile(double)}, for several quantiles at once, from one snapshot of the counts.
+     * @return An Optional array holding the estimates in the same order as the fractions. Will be empty if nothing has
+     * been recorded.
+     * @throws IllegalArgumentException if any fraction is not between 0 and 1
+     */
+    public Optional<double[]> getQuantiles(double... fractions) {
+        for (double fraction : fractions) {
+            if (!(fraction >= 0 && fraction <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1");
+            }
+        }
+        long[] counts = getCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return Optional.empty();
+        }
+
+        double[] quantiles = new double[fractions.length];
+        for (int q = 0; q < fractions.length; q++) {
+            long targetRank = Math.max(1, (long) Math.ceil(fractions[q] * total));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= targetRank) {
+                    quantiles[q] = midpointOf(i);
+                    break;
+                }
+            }
+        }
+        return Optional.of(quantiles);
+    }
+
+    /**
+     * @return Every bucket holding at least one value, in ascending order of value
+     */
+    public List<Bucket> getBuckets() {
+        long[] counts = getCounts();
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                buckets.add(new Bucket(lowerBoundOf(i), upperBoundOf(i), counts[i]));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Serialises the histogram compactly: its configuration, then only its non-empty buckets, each as a variable-length
+     * gap from the previous one and a variable-length count. The stripes are summed, and not themselves recorded.
+     */
+    public byte[] toByteArray() {
+        long[] counts = getCounts();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(SERIAL_FORMAT);
+            output.writeDouble(lowestDiscernibleValue);
+            output.writeDouble(highestTrackableValue);
+            output.writeByte(precisionBits);
+            int previous = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    writeVariableLength(output, i - previous);
+                    writeVariableLength(output, counts[i]);
+                    previous = i;
+                }
+            }
+            writeVariableLength(output, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads back a histogram written by {@link LogLinearHistogram#toByteArray()}, striped for the number of available
+     * processors.
+     * @throws IllegalArgumentException if the bytes do not hold a serialised histogram
+     */
+    public static LogLinearHistogram fromByteArray(byte[] bytes) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (input.readInt() != SERIAL_FORMAT) {
+                throw new IllegalArgumentException("Not a serialised histogram");
+            }
+            double lowest = input.readDouble(), highest = input.readDouble();
+            int precisionBits = input.readByte();
+            LogLinearHistogram histogram = new LogLinearHistogram(lowest, highest, precisionBits, Runtime.getRuntime().availableProcessors());
+            AtomicLongArray stripe = histogram.stripes[0];
+            int index = -1;
+            for (long gap = readVariableLength(input); gap != 0; gap = readVariableLength(input)) {
+                index += (int) gap;
+                stripe.set(index, readVariableLength(input));
+            }
+            return histogram;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Not a serialised histogram", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        double[] quantiles = getQuantiles(0.5, 0.99, 0.999).orElse(new double[]{Double.NaN, Double.NaN, Double.NaN});
+        return "LogLinearHistogram(count=%d, p50=%s, p99=%s, p99.9=%s)".formatted(getCount(), quantiles[0], quantiles[1], quantiles[2]);
+    }
+
+    private boolean hasSameBucketsAs(LogLinearHistogram other) {
+        return lowestDiscernibleValue == other.lowestDiscernibleValue
+                && highestTrackableValue == other.highestTrackableValue
+                && precisionBits == other.precisionBits;
+    }
+
+    private AtomicLongArray stripe() {
+        long id = Thread.currentThread().getId();
+        return stripes[(int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask];
+    }
+
+    private long[] getCounts() {
+        long[] counts = new long[stripes[0].length()];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * The exponent and the top precisionBits bits of the mantissa of a positive double, which orders values the same way
+     * as the doubles themselves
+     */
+    private long keyOf(double magnitude) {
+        return Double.doubleToRawLongBits(magnitude) >>> shift;
+    }
+
+    private double valueOfKey(long key) {
+        return Double.longBitsToDouble(key << shift);
+    }
+
+    private int indexOf(double value) {
+        double magnitude = Math.abs(value);
+        if (magnitude < lowestDiscernibleValue) {
+            return zeroIndex;
+        }
+        int offset = (int) (Math.min(keyOf(magnitude), highestKey) - lowestKey);
+        return value > 0 ? zeroIndex + 1 + offset : zeroIndex - 1 - offset;
+    }
+
+    private double lowerBoundOf(int index) {
+        if (index == zeroIndex) {
+            return -lowestDiscernibleValue;
+        }
+        return index > zeroIndex
+                ? Math.max(valueOfKey(lowestKey + index - zeroIndex - 1), lowestDiscernibleValue)
+                : -valueOfKey(lowestKey + zeroIndex - index);
+    }
+
+    private double upperBoundOf(int index) {
+        if (index == zeroIndex) {
+            return lowestDiscernibleValue;
+        }
+        return index > zeroIndex
+                ? valueOfKey(lowestKey + index - zeroIndex)
+                : -Math.max(valueOfKey(lowestKey + zeroIndex - index - 1), lowestDiscernibleValue);
+    }
+
+    private double midpointOf(int index) {
+        if (index == zeroIndex) {
+            return 0;
+        }
+        double lower = lowerBoundOf(index);
+        return lower + (upperBoundOf(index) - lower) / 2;
+    }
+
+    private static void writeVariableLength(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    private static long readVariableLength(DataInput input) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Estimates quantiles (e.g. the median, p99, p99.9) of a stream of numbers in bounded memory, using a KLL sketch
+ * (Karnin, Lang and Liberty, "Optimal Quantile Approximation in Streams", 2016).
+ * <p>
+ * Numbers are kept in a stack of compactors. Each number at level h stands in for 2^h numbers of the input. When a level
+ * fills up it is sorted, and every other number (starting at random from the first or the second) is promoted to the
+ * level above, halving the space it takes without changing the total weight. Capacities shrink geometrically down the
+ * stack, so a sketch retains roughly 3k numbers however long the stream is.
+ * </p>
+ * <p>
+ * The accuracy is controlled by k. With 99% confidence, the rank of a returned quantile is within
+ * {@link QuantileSketch#getNormalisedRankError()} of the requested rank, as a fraction of the count: about 1.3% for the
+ * default k of 200, and about 0.1% for a k of 2000. Note that the bound is on rank, not value, so tail quantiles such as
+ * p99.9 need a k large enough for the rank error to be well below 0.1%.
+ * </p>
+ * <p>
+ * Like {@link StatisticsAccumulator}, sketches over separate parts of some data can be combined, so the data can be
+ * split into chunks, sketched on separate threads or machines, and then merged; the merged sketch carries the same
+ * error bound. A sketch is not itself thread-safe. NaNs are ignored.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class QuantileSketch {
+    public static final int DEFAULT_K = 200;
+    private static final int MINIMUM_LEVEL_CAPACITY = 8;
+    private static final double CAPACITY_DECAY = 2d / 3;
+
+    private final int k;
+    private final SplittableRandom random;
+    private double[][] levels = {new double[MINIMUM_LEVEL_CAPACITY]};
+    private int[] sizes = {0};
+    private int retained = 0;
+    private int totalCapacity;
+    private long count = 0;
+    private double minimum = Double.POSITIVE_INFINITY;
+    private double maximum = Double.NEGATIVE_INFINITY;
+    /**
+     * The retained numbers in ascending order, with their cumulative weights, built on demand for queries and discarded
+     * whenever the sketch changes
+     */
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+
+    /**
+     * Creates an empty sketch with the default k.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty sketch.
+     * @param k The accuracy parameter. Larger values retain more numbers and give smaller errors.
+     * @throws IllegalArgumentException if k is less than 8
+     */
+    public QuantileSketch(int k) {
+        this(k, new SplittableRandom());
+    }
+
+    /**
+     * Creates an empty sketch whose random choices are seeded, so that sketching the same input always gives the same
+     * result.
+     * @throws IllegalArgumentException if k is less than 8
+     */
+    public QuantileSketch(int k, long seed) {
+        this(k, new SplittableRandom(seed));
+    }
+
+    private QuantileSketch(int k, SplittableRandom random) {
+        if (k < MINIMUM_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("Sketch k must be at least " + MINIMUM_LEVEL_CAPACITY);
+        }
+        this.k = k;
+        this.random = random;
+        totalCapacity = capacity(0);
+    }
+
+    /**
+     * @param numbers The numbers to sketch
+     * @return A new sketch with the default k, holding the given numbers
+     */
+    public static QuantileSketch of(Iterable<? extends Number> numbers) {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.addAll(numbers);
+        return sketch;
+    }
+
+    /**
+     * @param numbers The numbers to sketch
+     * @return A new sketch with the default k, holding the given numbers
+     */
+    public static QuantileSketch of(double... numbers) {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.addAll(numbers);
+        return sketch;
+    }
+
+    /**
+     * The rank error of a sketch with the given k, at 99% confidence, as a fraction of the count. This is the empirical
+     * fit for KLL sketches published with the Apache DataSketches library.
+     */
+    public static double getNormalisedRankError(int k) {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * Adds a single number to the sketch. NaNs are ignored.
+     */
+    public void add(double number) {
+        if (Double.isNaN(number)) {
+            return;
+        }
+        count++;
+        if (number < minimum) {
+            minimum = number;
+        }
+        if (number > maximum) {
+            maximum = number;
+        }
+        append(0, number);
+        sortedValues = null;
+        while (retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds every number in the given Iterable to the sketch.
+     */
+    public void addAll(Iterable<? extends Number> numbers) {
+        for (Number number : numbers) {
+            add(number.doubleValue());
+        }
+    }
+
+    /**
+     * Adds every number in the given array to the sketch.
+     */
+    public void addAll(double[] numbers) {
+        for (double number : numbers) {
+            add(number);
+        }
+    }
+
+    /**
+     * Merges another sketch into this one, as if every number added to the other had been added to this one instead.
+     * The other sketch is not modified.
+     * @param other The sketch to merge into this one
+     * @return This sketch
+     * @throws IllegalArgumentException if the sketches have different values of k
+     */
+    public QuantileSketch combine(QuantileSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Mismatched sketch sizes");
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        double[][] otherLevels = other.levels;
+        int[] otherSizes = other.sizes.clone();
+        for (int level = 0; level < otherLevels.length; level++) {
+            while (level >= levels.length) {
+                addLevel();
+            }
+            double[] items = Arrays.copyOf(otherLevels[level], otherSizes[level]);
+            for (double item : items) {
+                append(level, item);
+            }
+        }
+        count += other.count;
+        minimum = Math.min(minimum, other.minimum);
+        maximum = Math.max(maximum, other.maximum);
+        sortedValues = null;
+        while (retained >= totalCapacity) {
+            compress();
+        }
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @return How many numbers the sketch currently holds
+     */
+    public int getRetainedCount() {
+        return retained;
+    }
+
+    /**
+     * @return The rank error of this sketch, at 99% confidence, as a fraction of the count
+     * @see QuantileSketch#getNormalisedRankError(int)
+     */
+    public double getNormalisedRankError() {
+        return getNormalisedRankError(k);
+    }
+
+    /**
+     * @return The smallest number added, exactly. Will be empty if nothing has been added.
+     */
+    public Optional<Double> getMinimum() {
+        return count == 0 ? Optional.empty() : Optional.of(minimum);
+    }
+
+    /**
+     * @return The largest number added, exactly. Will be empty if nothing has been added.
+     */
+    public Optional<Double> getMaximum() {
+        return count == 0 ? Optional.empty() : Optional.of(maximum);
+    }
+
+    /**
+     * Estimates a quantile of the numbers added: the smallest retained number such that at least the given fraction of
+     * the count is less than or equal to it. Quantiles 0 and 1 are the exact minimum and maximum.
+     * @param fraction The quantile to estimate, from 0 to 1, e.g. 0.99 for p99
+     * @return An Optional Double. Will be empty if nothing has been added.
+     * @throws IllegalArgumentException if the fraction is not between 0 and 1
+     */
+    public Optional<Double> getQuantile(double fraction) {
+        checkFraction(fraction);
+        if (count == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(quantile(fraction));
+    }
+
+    /**
+     * As {@link QuantileSketch#getQuantile(double)}, for several quantiles at once.
+     * @return An Optional array holding the estimates in the same order as the fractions. Will be empty if nothing has
+     * been added.
+     * @throws IllegalArgumentException if any fraction is not between 0 and 1
+     */
+    public Optional<double[]> getQuantiles(double... fractions) {
+        for (double fraction : fractions) {
+            checkFraction(fraction);
+        }
+        if (count == 0) {
+            return Optional.empty();
+        }
+        double[] quantiles = new double[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            quantiles[i] = quantile(fractions[i]);
+        }
+        return Optional.of(quantiles);
+    }
+
+    /**
+     * Estimates the fraction of the numbers added that are less than or equal to the given value.
+     * @return An Optional Double. Will be empty if nothing has been added.
+     */
+    public Optional<Double> getRank(double value) {
+        if (count == 0) {
+            return Optional.empty();
+        }
+        sort();
+        int index = upperBound(value);
+        return Optional.of(index == 0 ? 0d : (double) cumulativeWeights[index - 1] / count);
+    }
+
+    private double quantile(double fraction) {
+        if (fraction == 0) {
+            return minimum;
+        }
+        if (fraction == 1) {
+            return maximum;
+        }
+        sort();
+        double targetWeight = fraction * count;
+        int lo = 0, hi = cumulativeWeights.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulativeWeights[mid] < targetWeight) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return Math.min(Math.max(sortedValues[lo], minimum), maximum);
+    }
+
+    /**
+     * @return The index of the first sorted value greater than the given value
+     */
+    private int upperBound(double value) {
+        int lo = 0, hi = sortedValues.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedValues[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static void checkFraction(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Merges the levels, each sorted on its own, into the sorted view used by queries.
+     */
+    private void sort() {
+        if (sortedValues != null) {
+            return;
+        }
+        double[][] sortedLevels = new double[levels.length][];
+        for (int level = 0; level < levels.length; level++) {
+            sortedLevels[level] = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sortedLevels[level]);
+        }
+        int[] heads = new int[levels.length];
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        long cumulativeWeight = 0;
+        for (int i = 0; i < retained; i++) {
+            int smallestLevel = -1;
+            for (int level = 0; level < sortedLevels.length; level++) {
+                if (heads[level] < sortedLevels[level].length
+                        && (smallestLevel < 0 || sortedLevels[level][heads[level]] < sortedLevels[smallestLevel][heads[smallestLevel]])) {
+                    smallestLevel = level;
+                }
+            }
+            values[i] = sortedLevels[smallestLevel][heads[smallestLevel]++];
+            cumulativeWeight += 1L << smallestLevel;
+            weights[i] = cumulativeWeight;
+        }
+        sortedValues = values;
+        cumulativeWeights = weights;
+    }
+
+    /**
+     * Compacts the lowest level that is at or over its capacity, promoting half its numbers to the level above.
+     */
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] >= capacity(level)) {
+                if (level == levels.length - 1) {
+                    addLevel();
+                }
+                compact(level);
+                return;
+            }
+        }
+    }
+
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // With an odd number of items, the smallest stays behind so that an even number are compacted
+        int start = size % 2;
+        for (int i = start + (random.nextBoolean() ? 1 : 0); i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        retained -= size - start;
+        sizes[level] = start;
+    }
+
+    private void append(int level, double item) {
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = levels[level] = Arrays.copyOf(items, items.length * 2);
+        }
+        items[sizes[level]++] = item;
+        retained++;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new double[MINIMUM_LEVEL_CAPACITY];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        totalCapacity = 0;
+        for (int level = 0; level < levels.length; level++) {
+            totalCapacity += capacity(level);
+        }
+    }
+
+    /**
+     * The capacity of a level, shrinking geometrically with its depth below the top level
+     */
+    private int capacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MINIMUM_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch(k=%d, count=%d, retained=%d, minimum=%s, median=%s, maximum=%s)".formatted(
+                k, count, retained, getMinimum().orElse(Double.NaN), getQuantile(0.5).orElse(Double.NaN),
+                getMaximum().orElse(Double.NaN));
+    }
+}
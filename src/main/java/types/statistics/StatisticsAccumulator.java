@@ -0,0 +1,178 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import java.util.Optional;
+
+/**
+ * Accumulates summary statistics (count, sum, mean, variance, minimum and maximum) over a stream of numbers in a single
+ * pass, using Welford's online algorithm for the variance. Accumulators over separate parts of some data can be
+ * combined exactly, so the data can be split into chunks, accumulated in parallel or on different machines, and then
+ * merged.
+ */
+public final class StatisticsAccumulator {
+    private long count = 0;
+    private double sum = 0;
+    private double mean = 0;
+    private double sumOfSquaredDeviations = 0;
+    private double minimum = Double.POSITIVE_INFINITY;
+    private double maximum = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param numbers The numbers to accumulate
+     * @return A new accumulator holding the statistics of the given numbers
+     */
+    public static StatisticsAccumulator of(Iterable<? extends Number> numbers) {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        accumulator.addAll(numbers);
+        return accumulator;
+    }
+
+    /**
+     * @param numbers The numbers to accumulate
+     * @return A new accumulator holding the statistics of the given numbers
+     */
+    public static StatisticsAccumulator of(double... numbers) {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        for (double number : numbers) {
+            accumulator.add(number);
+        }
+        return accumulator;
+    }
+
+    /**
+     * Adds a single number to the accumulated statistics.
+     */
+    public void add(double number) {
+        count++;
+        sum += number;
+        double delta = number - mean;
+        mean += delta / count;
+        sumOfSquaredDeviations += delta * (number - mean);
+        if (number < minimum) {
+            minimum = number;
+        }
+        if (number > maximum) {
+            maximum = number;
+        }
+    }
+
+    /**
+     * Adds every number in the given Iterable to the accumulated statistics.
+     */
+    public void addAll(Iterable<? extends Number> numbers) {
+        for (Number number : numbers) {
+            add(number.doubleValue());
+        }
+    }
+
+    /**
+     * Merges the statistics of another accumulator into this one, as if every number added to the other had been added
+     * to this one instead. The other accumulator is not modified.
+     * @param other The accumulator to merge into this one
+     * @return This accumulator
+     */
+    public StatisticsAccumulator combine(StatisticsAccumulator other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            mean = other.mean;
+            sumOfSquaredDeviations = other.sumOfSquaredDeviations;
+            minimum = other.minimum;
+            maximum = other.maximum;
+            return this;
+        }
+        long combinedCount = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / combinedCount;
+        sumOfSquaredDeviations += other.sumOfSquaredDeviations + delta * delta * ((double) count * other.count / combinedCount);
+        count = combinedCount;
+        sum += other.sum;
+        minimum = Math.min(minimum, other.minimum);
+        maximum = Math.max(maximum, other.maximum);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The arithmetic mean of the accumulated numbers. Will be empty if nothing has been accumulated.
+     */
+    public Optional<Double> getArithmeticMean() {
+        return count == 0 ? Optional.empty() : Optional.of(sum / count);
+    }
+
+    /**
+     * @return The smallest accumulated number. Will be empty if nothing has been accumulated.
+     */
+    public Optional<Double> getMinimum() {
+        return count == 0 ? Optional.empty() : Optional.of(minimum);
+    }
+
+    /**
+     * @return The largest accumulated number. Will be empty if nothing has been accumulated.
+     */
+    public Optional<Double> getMaximum() {
+        return count == 0 ? Optional.empty() : Optional.of(maximum);
+    }
+
+    /**
+     * Treating the accumulated numbers as the entire population, calculates the variance of the population.
+     * @return An Optional Double. Will be empty if nothing has been accumulated.
+     */
+    public Optional<Double> getPopulationVariance() {
+        return count == 0 ? Optional.empty() : Optional.of(sumOfSquaredDeviations / count);
+    }
+
+    /**
+     * Treating the accumulated numbers as a sample of a population, estimates the variance of the entire population.
+     * @return An Optional Double. Will be empty if nothing has been accumulated, and NaN if only one number has.
+     */
+    public Optional<Double> getSampleVariance() {
+        return count == 0 ? Optional.empty() : Optional.of(sumOfSquaredDeviations / (count - 1));
+    }
+
+    /**
+     * @return The square root of {@link StatisticsAccumulator#getPopulationVariance()}
+     */
+    public Optional<Double> getPopulationStandardDeviation() {
+        return getPopulationVariance().map(Math::sqrt);
+    }
+
+    /**
+     * @return The square root of {@link StatisticsAccumulator#getSampleVariance()}
+     */
+    public Optional<Double> getSampleStandardDeviation() {
+        return getSampleVariance().map(Math::sqrt);
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsAccumulator(count=%d, sum=%s, mean=%s, variance=%s, minimum=%s, maximum=%s)".formatted(
+                count, sum, getArithmeticMean().orElse(Double.NaN), getPopulationVariance().orElse(Double.NaN),
+                getMinimum().orElse(Double.NaN), getMaximum().orElse(Double.NaN));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import java.util.Arrays;
+
+/**
+ * A primitive double specialisation of {@link Window}: a fixed-capacity ring buffer over the most recent values of some
+ * sequence. Values are indexed from oldest (0) to newest (size() - 1).
+ */
+public final class DoubleWindow {
+    private final double[] buffer;
+    private int start = 0;
+    private int size = 0;
+
+    /**
+     * Creates an empty window.
+     * @param capacity The most values the window can hold at once
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public DoubleWindow(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Window capacity must be at least 1");
+        }
+        buffer = new double[capacity];
+    }
+
+    /**
+     * Adds a value to the newest end of the window, evicting the oldest value if the window is already full.
+     */
+    public void push(double value) {
+        if (size < buffer.length) {
+            buffer[(start + size++) % buffer.length] = value;
+        } else {
+            buffer[start] = value;
+            start = (start + 1) % buffer.length;
+        }
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * @param index The position in the window, from 0 for the oldest value to size() - 1 for the newest
+     * @return The value at the given position
+     * @throws IndexOutOfBoundsException if the index is not within the window
+     */
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return buffer[(start + index) % buffer.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public boolean isFull() {
+        return size == buffer.length;
+    }
+
+    /**
+     * @return A new array holding the values currently in the window, from oldest to newest. Unaffected by later pushes.
+     */
+    public double[] copy() {
+        double[] copy = new double[size];
+        int firstPart = Math.min(size, buffer.length - start);
+        System.arraycopy(buffer, start, copy, 0, firstPart);
+        System.arraycopy(buffer, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(copy());
+    }
+}
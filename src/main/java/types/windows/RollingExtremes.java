@@ -0,0 +1,165 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import java.util.Optional;
+
+/**
+ * The minimum and maximum of the most recent values of some sequence, updated in amortised constant time as each new
+ * value is pushed. Each extreme is tracked with a monotonic deque: a queue of the values that could still become the
+ * extreme of some future window, in the order they were pushed. A new value first discards every queued value it
+ * beats, since those can never be the extreme while it is in the window. The front of the queue is therefore always
+ * the extreme of the current window, and is dropped once it falls out of the window.
+ * <p>
+ * NaNs occupy a place in the window, but are otherwise skipped.
+ * </p>
+ * @see RollingStatistics
+ */
+@SuppressWarnings("unused")
+public final class RollingExtremes {
+    private final int capacity;
+    private final MonotonicDeque minima, maxima;
+    private long pushed = 0;
+
+    /**
+     * Creates extremes over an empty window.
+     * @param capacity The most values the window can hold at once
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public RollingExtremes(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Window capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        minima = new MonotonicDeque(capacity, true);
+        maxima = new MonotonicDeque(capacity, false);
+    }
+
+    /**
+     * Adds a value to the window, evicting the oldest value if the window is already full.
+     */
+    public void push(double value) {
+        long sequenceNumber = pushed++;
+        long oldestInWindow = sequenceNumber - capacity + 1;
+        minima.expire(oldestInWindow);
+        maxima.expire(oldestInWindow);
+        if (!Double.isNaN(value)) {
+            minima.push(value, sequenceNumber);
+            maxima.push(value, sequenceNumber);
+        }
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        pushed = 0;
+        minima.clear();
+        maxima.clear();
+    }
+
+    /**
+     * @return The number of values in the window, including any NaNs
+     */
+    public int getCount() {
+        return (int) Math.min(pushed, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return pushed >= capacity;
+    }
+
+    /**
+     * @return The smallest value in the window. Will be empty if the window holds no values other than NaNs.
+     */
+    public Optional<Double> getMinimum() {
+        return minima.isEmpty() ? Optional.empty() : Optional.of(minima.front());
+    }
+
+    /**
+     * @return The largest value in the window. Will be empty if the window holds no values other than NaNs.
+     */
+    public Optional<Double> getMaximum() {
+        return maxima.isEmpty() ? Optional.empty() : Optional.of(maxima.front());
+    }
+
+    @Override
+    public String toString() {
+        return "RollingExtremes(count=%d, capacity=%d, minimum=%s, maximum=%s)".formatted(
+                getCount(), capacity, getMinimum().orElse(Double.NaN), getMaximum().orElse(Double.NaN));
+    }
+
+    /**
+     * A ring buffer of values with the sequence numbers at which they were pushed, kept monotonic from front to back:
+     * ascending for minima, descending for maxima.
+     */
+    private static final class MonotonicDeque {
+        private final double[] values;
+        private final long[] sequenceNumbers;
+        private final boolean ascending;
+        private int head = 0;
+        private int size = 0;
+
+        MonotonicDeque(int capacity, boolean ascending) {
+            values = new double[capacity];
+            sequenceNumbers = new long[capacity];
+            this.ascending = ascending;
+        }
+
+        void push(double value, long sequenceNumber) {
+            while (size > 0) {
+                double back = values[index(size - 1)];
+                if (ascending ? back < value : back > value) {
+                    break;
+                }
+                size--;
+            }
+            int index = index(size++);
+            values[index] = value;
+            sequenceNumbers[index] = sequenceNumber;
+        }
+
+        void expire(long oldestInWindow) {
+            while (size > 0 && sequenceNumbers[head] < oldestInWindow) {
+                head = index(1);
+                size--;
+            }
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double front() {
+            return values[head];
+        }
+
+        private int index(int offset) {
+            int index = head + offset;
+            return index >= values.length ? index - values.length : index;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import java.util.Optional;
+
+/**
+ * The count, mean and variance of the most recent values of some sequence, updated in constant time as each new value
+ * is pushed and the oldest is evicted. Uses Welford's online algorithm, run forwards for each new value and backwards
+ * for each evicted one.
+ * <p>
+ * Removing values from a running variance loses a little precision each time, so the statistics are recomputed
+ * exactly from the window once every capacity evictions. This keeps the error bounded on arbitrarily long series, at an
+ * amortised cost of one extra operation per push.
+ * </p>
+ * <p>
+ * NaNs and infinities occupy a place in the window like any other value, but are counted separately rather than fed
+ * to the running update, so they cannot corrupt it. While any NaN, or infinities of both signs, are in the window, the
+ * mean and variance are NaN; while infinities of one sign are, the mean is that infinity and the variance is NaN. They
+ * recover as soon as the last such value is evicted.
+ * </p>
+ * @see RollingExtremes
+ */
+@SuppressWarnings("unused")
+public final class RollingStatistics {
+    private final DoubleWindow window;
+    private int nanCount = 0;
+    private int positiveInfinityCount = 0;
+    private int negativeInfinityCount = 0;
+    private int count = 0;
+    private double mean = 0;
+    private double sumOfSquaredDeviations = 0;
+    private int evictionsSinceRecompute = 0;
+
+    /**
+     * Creates statistics over an empty window.
+     * @param capacity The most values the window can hold at once
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public RollingStatistics(int capacity) {
+        window = new DoubleWindow(capacity);
+    }
+
+    /**
+     * Adds a value to the window, evicting the oldest value if the window is already full.
+     */
+    public void push(double value) {
+        boolean evicting = window.isFull();
+        double evicted = evicting ? window.get(0) : 0;
+        window.push(value);
+
+        if (evicting) {
+            if (Double.isFinite(evicted)) {
+                remove(evicted);
+            } else {
+                countNonFinite(evicted, -1);
+            }
+        }
+        if (Double.isFinite(value)) {
+            add(value);
+        } else {
+            countNonFinite(value, 1);
+        }
+
+        if (evicting && ++evictionsSinceRecompute >= window.capacity()) {
+            recompute();
+        }
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        window.clear();
+        nanCount = 0;
+        positiveInfinityCount = 0;
+        negativeInfinityCount = 0;
+        count = 0;
+        mean = 0;
+        sumOfSquaredDeviations = 0;
+        evictionsSinceRecompute = 0;
+    }
+
+    /**
+     * @return The number of values in the window, including any NaNs
+     */
+    public int getCount() {
+        return window.size();
+    }
+
+    public int getCapacity() {
+        return window.capacity();
+    }
+
+    public boolean isFull() {
+        return window.isFull();
+    }
+
+    /**
+     * @return The arithmetic mean of the window. Will be empty if the window is empty.
+     */
+    public Optional<Double> getArithmeticMean() {
+        if (window.size() == 0) {
+            return Optional.empty();
+        }
+        if (nanCount > 0 || positiveInfinityCount > 0 && negativeInfinityCount > 0) {
+            return Optional.of(Double.NaN);
+        }
+        if (positiveInfinityCount > 0) {
+            return Optional.of(Double.POSITIVE_INFINITY);
+        }
+        return Optional.of(negativeInfinityCount > 0 ? Double.NEGATIVE_INFINITY : mean);
+    }
+
+    /**
+     * Treating the window as the entire population, calculates the variance of the population.
+     * @return An Optional Double. Will be empty if the window is empty.
+     */
+    public Optional<Double> getPopulationVariance() {
+        if (window.size() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(hasNonFinite() ? Double.NaN : Math.max(0, sumOfSquaredDeviations) / count);
+    }
+
+    /**
+     * Treating the window as a sample of a population, estimates the variance of the entire population.
+     * @return An Optional Double. Will be empty if the window is empty, and NaN if it holds only one value.
+     */
+    public Optional<Double> getSampleVariance() {
+        if (window.size() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(hasNonFinite() ? Double.NaN : Math.max(0, sumOfSquaredDeviations) / (count - 1));
+    }
+
+    /**
+     * @return The square root of {@link RollingStatistics#getPopulationVariance()}
+     */
+    public Optional<Double> getPopulationStandardDeviation() {
+        return getPopulationVariance().map(Math::sqrt);
+    }
+
+    /**
+     * @return The square root of {@link RollingStatistics#getSampleVariance()}
+     */
+    public Optional<Double> getSampleStandardDeviation() {
+        return getSampleVariance().map(Math::sqrt);
+    }
+
+    private boolean hasNonFinite() {
+        return nanCount > 0 || positiveInfinityCount > 0 || negativeInfinityCount > 0;
+    }
+
+    private void countNonFinite(double value, int change) {
+        if (Double.isNaN(value)) {
+            nanCount += change;
+        } else if (value > 0) {
+            positiveInfinityCount += change;
+        } else {
+            negativeInfinityCount += change;
+        }
+    }
+
+    private void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquaredDeviations += delta * (value - mean);
+    }
+
+    private void remove(double value) {
+        count--;
+        if (count == 0) {
+            mean = 0;
+            sumOfSquaredDeviations = 0;
+            return;
+        }
+        double delta = value - mean;
+        mean -= delta / count;
+        sumOfSquaredDeviations -= delta * (value - mean);
+    }
+
+    private void recompute() {
+        evictionsSinceRecompute = 0;
+        double sum = 0;
+        for (int i = 0; i < window.size(); i++) {
+            double value = window.get(i);
+            if (Double.isFinite(value)) {
+                sum += value;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        mean = sum / count;
+        sumOfSquaredDeviations = 0;
+        for (int i = 0; i < window.size(); i++) {
+            double value = window.get(i);
+            if (Double.isFinite(value)) {
+                sumOfSquaredDeviations += (value - mean) * (value - mean);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RollingStatistics(count=%d, capacity=%d, mean=%s, variance=%s)".formatted(
+                getCount(), getCapacity(), getArithmeticMean().orElse(Double.NaN),
+                getPopulationVariance().orElse(Double.NaN));
+    }
+}
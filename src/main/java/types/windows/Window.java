@@ -0,0 +1,131 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A fixed-capacity window over the most recent values of some sequence, backed by a ring buffer. Pushing a value into
+ * a full window evicts the oldest, so a window can be slid along a sequence indefinitely without any allocation.
+ * Values are indexed from oldest (0) to newest (size() - 1). Since windows are generally reused as they slide, anything
+ * that needs to outlive the next push should be taken with {@link Window#copy()}.
+ * @param <T> The Type of the values in the window
+ */
+public final class Window<T> implements Iterable<T> {
+    private final Object[] buffer;
+    private int start = 0;
+    private int size = 0;
+
+    /**
+     * Creates an empty window.
+     * @param capacity The most values the window can hold at once
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public Window(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Window capacity must be at least 1");
+        }
+        buffer = new Object[capacity];
+    }
+
+    /**
+     * Adds a value to the newest end of the window, evicting the oldest value if the window is already full.
+     */
+    public void push(T value) {
+        if (size < buffer.length) {
+            buffer[(start + size++) % buffer.length] = value;
+        } else {
+            buffer[start] = value;
+            start = (start + 1) % buffer.length;
+        }
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            buffer[(start + i) % buffer.length] = null;
+        }
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * @param index The position in the window, from 0 for the oldest value to size() - 1 for the newest
+     * @return The value at the given position
+     * @throws IndexOutOfBoundsException if the index is not within the window
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (T) buffer[(start + index) % buffer.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public boolean isFull() {
+        return size == buffer.length;
+    }
+
+    /**
+     * @return A new List holding the values currently in the window, from oldest to newest. Unaffected by later pushes.
+     */
+    public List<T> copy() {
+        List<T> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(get(i));
+        }
+        return copy;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return copy().toString();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+import org.junit.jupiter.api.Test;
+import types.columns.DoubleColumn;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinancialFunctionsTest {
+    @Test
+    void getReturnsFromEquities() {
+        List<Double> returns = FinancialFunctions.getReturnsFromEquities(List.of(100d, 110d, 99d));
+        assertEquals(2, returns.size());
+        assertEquals(0.1, returns.get(0), 1e-15);
+        assertEquals(-0.1, returns.get(1), 1e-15);
+        assertEquals(List.of(), FinancialFunctions.getReturnsFromEquities(List.of(100d)));
+        assertEquals(List.of(), FinancialFunctions.getReturnsFromEquities(List.of()));
+    }
+
+    @Test
+    void getAbsoluteEarningPotential() {
+        assertEquals(1.1 * 1.1, FinancialFunctions.getAbsoluteEarningPotential(List.of(100d, 110d, 99d)), 1e-15);
+        assertEquals(1, FinancialFunctions.getAbsoluteEarningPotential(List.of(100d)));
+        assertEquals(1, FinancialFunctions.getAbsoluteEarningPotential(List.of()));
+    }
+
+    @Test
+    void getGeometricAverageReturn() {
+        assertEquals(0, FinancialFunctions.getGeometricAverageReturn(List.of(1d, -0.5)), 1e-15);
+        assertEquals(0.1, FinancialFunctions.getGeometricAverageReturn(List.of(0.1, 0.1, 0.1)), 1e-15);
+        assertEquals(0, FinancialFunctions.getGeometricAverageReturn(DoubleColumn.of(1, -0.5)), 1e-15);
+        assertEquals(1e-12, FinancialFunctions.getGeometricAverageReturn(List.of(1e-12, 1e-12)), 1e-27);
+        assertEquals(0, FinancialFunctions.getGeometricAverageReturn(List.of()));
+        assertEquals(0, FinancialFunctions.getGeometricAverageReturn(DoubleColumn.allocate(0)));
+    }
+
+    @Test
+    void getExponentialMovingBetas() {
+        double[] betas = FinancialFunctions.getExponentialMovingBetas(new double[]{0.02, -0.04, Double.NaN, 0.06}, new double[]{0.01, -0.02, 0.5, 0.03}, 0.3);
+        assertTrue(Double.isNaN(betas[0]));
+        assertEquals(2, betas[1], 1e-12);
+        assertEquals(2, betas[2], 1e-12);
+        assertEquals(2, betas[3], 1e-12);
+        assertEquals(0, FinancialFunctions.getExponentialMovingVolatilities(new double[]{0.01, 0.01}, 0.3)[1]);
+    }
+}
@@ -17,17 +17,107 @@
 package functions;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import types.columns.DoubleColumn;
+import types.cursors.DoubleZipCursor;
+import types.cursors.ZipCursor;
+import types.statistics.QuantileSketch;
+import types.statistics.StatisticsAccumulator;
+import types.tuples.Pair;
+import types.tuples.Quad;
+import types.tuples.Triple;
+import types.windows.Window;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Optional;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.DoubleStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class IterableFunctionsTest {
 
+    @Test
+    void sortListsSimultaneously() {
+        Pair<List<Double>, List<String>> sorted = IterableFunctions.sortListsSimultaneously(
+                List.of(3d, 1d, 2d, 1d), List.of("three", "one", "two", "another one"));
+        assertIterableEquals(List.of(1d, 1d, 2d, 3d), sorted.first());
+        assertIterableEquals(List.of("one", "another one", "two", "three"), sorted.second());
+
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.sortListsSimultaneously(List.of(1), List.of()));
+    }
+
+    @Test
+    void sortColumnsSimultaneously() {
+        Pair<List<Integer>, List<List<?>>> sorted = IterableFunctions.sortColumnsSimultaneously(
+                List.of(3, 1, 2), List.of("c", "a", "b"), List.of(30d, 10d, 20d));
+        assertIterableEquals(List.of(1, 2, 3), sorted.first());
+        assertIterableEquals(List.of("a", "b", "c"), sorted.second().get(0));
+        assertIterableEquals(List.of(10d, 20d, 30d), sorted.second().get(1));
+
+        double[] keys = {0.3, 0.1, 0.2, 0.1};
+        long[] longs = {3, 1, 2, 4};
+        String[] strings = {"c", "a", "b", "d"};
+        IterableFunctions.sortColumnsSimultaneously(keys, longs, strings);
+        assertArrayEquals(new double[]{0.1, 0.1, 0.2, 0.3}, keys);
+        assertArrayEquals(new long[]{1, 4, 2, 3}, longs);
+        assertArrayEquals(new String[]{"a", "d", "b", "c"}, strings);
+
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.sortColumnsSimultaneously(keys, (Object) new long[3]));
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.sortColumnsSimultaneously(keys, (Object) new char[4]));
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.sortColumnsSimultaneously(keys, keys));
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.sortColumnsSimultaneously(keys, longs, strings, longs));
+        double[] unsorted = {3, 1, 2};
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.sortColumnsSimultaneously(unsorted, new int[3], unsorted));
+        assertArrayEquals(new double[]{3, 1, 2}, unsorted);
+    }
+
+    @Test
+    void reversed() {
+        List<Integer> arrayList = new ArrayList<>(List.of(1, 2, 3));
+        List<Integer> linkedList = new LinkedList<>(List.of(1, 2, 3));
+        for (List<Integer> list : List.of(arrayList, linkedList)) {
+            Iterable<Integer> reversed = IterableFunctions.reversed(list);
+            assertIterableEquals(List.of(3, 2, 1), reversed);
+            assertIterableEquals(List.of(3, 2, 1), reversed); // Second test to confirm no iterator weirdness
+
+            assertThrows(ConcurrentModificationException.class, () -> {
+                for (Integer ignored : reversed) {
+                    list.add(4);
+                }
+            });
+        }
+
+        List<Integer> list = new ArrayList<>(List.of(1, 2, 3));
+        List<Integer> seen = new ArrayList<>();
+        for (Integer integer : IterableFunctions.reversedSnapshot(list)) {
+            list.add(integer);
+            seen.add(integer);
+        }
+        assertIterableEquals(List.of(3, 2, 1), seen);
+    }
+
+    @Test
+    void reversedFailsFastOnStructuralModificationOnly() {
+        for (List<Integer> list : List.of(new ArrayList<>(List.of(1, 2, 3)), new LinkedList<>(List.of(1, 2, 3)))) {
+            Iterator<Integer> iterator = IterableFunctions.reversed(list).iterator();
+            assertEquals(3, iterator.next());
+            list.add(4);
+            list.remove(3);
+            assertThrows(ConcurrentModificationException.class, iterator::next);
+
+            List<Integer> seen = new ArrayList<>();
+            for (Integer integer : IterableFunctions.reversed(list)) {
+                list.set(0, 10);
+                seen.add(integer);
+            }
+            assertIterableEquals(List.of(3, 2, 10), seen);
+        }
+    }
 
     @Test
     void stitched() {
@@ -75,6 +165,129 @@ class IterableFunctionsTest {
         assertIterableEquals(expectedResultList, iterable); // Second test to confirm no iterator weirdness
     }
 
+    @Test
+    void zippedNWay() {
+        List<Triple<Integer, String, Double>> triples = new ArrayList<>();
+        IterableFunctions.zipped(List.of(1, 2, 3), List.of("a", "b"), List.of(1d, 2d, 3d)).forEach(triples::add);
+        assertIterableEquals(List.of(new Triple<>(1, "a", 1d), new Triple<>(2, "b", 2d)), triples);
+
+        List<Quad<Integer, String, Double, Long>> quads = new ArrayList<>();
+        IterableFunctions.zipped(List.of(1), List.of("a"), List.of(1d), List.of(1L, 2L)).forEach(quads::add);
+        assertIterableEquals(List.of(new Quad<>(1, "a", 1d, 1L)), quads);
+    }
+
+    @Test
+    void zipToArrays() {
+        Iterable<Integer> notACollection = () -> List.of(1, 2, 3, 4).iterator();
+        double[][] expected = {{1, 2, 3}, {0.5, 1.5, 2.5}};
+        assertArrayEquals(expected, IterableFunctions.zipToArrays(List.of(1, 2, 3, 4), List.of(0.5, 1.5, 2.5)));
+        assertArrayEquals(expected, IterableFunctions.zipToArrays(notACollection, List.of(0.5, 1.5, 2.5)));
+
+        double[][] destinations = new double[2][4];
+        assertEquals(2, IterableFunctions.zipIntoArrays(destinations, 2, List.of(1, 2, 3), List.of(4L, 5L, 6L)));
+        assertArrayEquals(new double[][]{{0, 0, 1, 2}, {0, 0, 4, 5}}, destinations);
+    }
+
+    @Test
+    void unzipped() {
+        List<Pair<Integer, String>> pairs = List.of(new Pair<>(1, "a"), new Pair<>(2, "b"));
+        Pair<List<Integer>, List<String>> unzipped = IterableFunctions.unzipped(pairs);
+        assertIterableEquals(List.of(1, 2), unzipped.first());
+        assertIterableEquals(List.of("a", "b"), unzipped.second());
+
+        List<Pair<Integer, Double>> numericPairs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            numericPairs.add(new Pair<>(i, i / 2d));
+        }
+        Iterable<Pair<Integer, Double>> notACollection = numericPairs::iterator;
+        for (Iterable<Pair<Integer, Double>> input : List.of(numericPairs, notACollection)) {
+            Pair<double[], double[]> arrays = IterableFunctions.unzippedToArrays(input);
+            assertEquals(100, arrays.first().length);
+            assertEquals(100, arrays.second().length);
+            assertEquals(99, arrays.first()[99]);
+            assertEquals(49.5, arrays.second()[99]);
+        }
+    }
+
+    @Test
+    void zippedStream() {
+        List<Integer> first = new ArrayList<>();
+        List<Long> second = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            first.add(i);
+            second.add(2L * i);
+        }
+        second.add(-1L);
+
+        Spliterator<Pair<Integer, Long>> spliterator = IterableFunctions.zippedStream(first, second).spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(10_000, spliterator.getExactSizeIfKnown());
+
+        long expected = 0;
+        for (Pair<Integer, Long> pair : IterableFunctions.zipped(first, second)) {
+            expected += pair.first() * pair.second();
+        }
+        assertEquals(expected, IterableFunctions.zippedStream(first, second).parallel().mapToLong(pair -> pair.first() * pair.second()).sum());
+        assertIterableEquals(IterableFunctions.zipToList(first, second), IterableFunctions.zippedStream(first, second).parallel().toList());
+        assertIterableEquals(IterableFunctions.zipToList(first, second), IterableFunctions.zippedStream(new LinkedList<>(first), second).toList());
+    }
+
+    @Test
+    void zipCursor() {
+        ZipCursor<String, Integer> cursor = IterableFunctions.zipCursor(List.of("a", "b", "c"), List.of(1, 2));
+        assertThrows(NoSuchElementException.class, cursor::first);
+        assertTrue(cursor.advance());
+        assertEquals("a", cursor.first());
+        assertEquals(1, cursor.second());
+        assertTrue(cursor.advance());
+        assertEquals("b", cursor.first());
+        assertEquals(2, cursor.second());
+        assertFalse(cursor.advance());
+        assertThrows(NoSuchElementException.class, cursor::second);
+
+        DoubleZipCursor arrayCursor = IterableFunctions.zipCursor(new double[]{1, 2, 3}, new double[]{4, 5, 6});
+        DoubleZipCursor iterableCursor = IterableFunctions.doubleZipCursor(List.of(1, 2, 3), List.of(4d, 5d, 6d));
+        double arrayDotProduct = 0, iterableDotProduct = 0;
+        while (arrayCursor.advance() & iterableCursor.advance()) {
+            arrayDotProduct += arrayCursor.first() * arrayCursor.second();
+            iterableDotProduct += iterableCursor.first() * iterableCursor.second();
+        }
+        assertEquals(32, arrayDotProduct);
+        assertEquals(32, iterableDotProduct);
+        assertFalse(arrayCursor.advance());
+    }
+
+    @Test
+    void slidingWindows() {
+        List<List<Integer>> sliding = new ArrayList<>();
+        for (Window<Integer> window : IterableFunctions.slidingWindows(List.of(1, 2, 3, 4, 5), 3)) {
+            sliding.add(window.copy());
+        }
+        assertIterableEquals(List.of(List.of(1, 2, 3), List.of(2, 3, 4), List.of(3, 4, 5)), sliding);
+        assertFalse(IterableFunctions.slidingWindows(List.of(1, 2), 3).iterator().hasNext());
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.slidingWindows(List.of(1), 0));
+    }
+
+    @Test
+    void tumblingWindows() {
+        List<List<Integer>> tumbling = new ArrayList<>();
+        for (Window<Integer> window : IterableFunctions.tumblingWindows(List.of(1, 2, 3, 4, 5), 2)) {
+            tumbling.add(window.copy());
+        }
+        assertIterableEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), tumbling);
+    }
+
+    @Test
+    void doubleWindows() {
+        List<double[]> doubleSliding = new ArrayList<>();
+        IterableFunctions.slidingWindows(new double[]{1, 2, 3, 4}, 2).forEach(window -> doubleSliding.add(window.copy()));
+        assertArrayEquals(new double[][]{{1, 2}, {2, 3}, {3, 4}}, doubleSliding.toArray(double[][]::new));
+
+        List<double[]> doubleTumbling = new ArrayList<>();
+        IterableFunctions.doubleTumblingWindows(List.of(1, 2, 3, 4, 5), 3).forEach(window -> doubleTumbling.add(window.copy()));
+        assertArrayEquals(new double[][]{{1, 2, 3}, {4, 5}}, doubleTumbling.toArray(double[][]::new));
+    }
+
     @Test
     void getArithmeticMean() {
         assertEquals(0, IterableFunctions.getArithmeticMean(List.of(0d,0d,0d,0d)).orElseThrow());
@@ -83,4 +296,397 @@ class IterableFunctionsTest {
         assertEquals(2.5, IterableFunctions.getArithmeticMean(List.of(1d,2d,3d,4d)).orElseThrow());
         assertEquals(Optional.empty(), IterableFunctions.getArithmeticMean(List.of()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void standardDeviations() {
+        List<Double> numbers = List.of(2d, 4d, 4d, 4d, 5d, 5d, 7d, 9d);
+        assertEquals(2, IterableFunctions.getPopulationStandardDeviation(numbers).orElseThrow(), 1e-15);
+        assertEquals(Math.sqrt(32d / 7), IterableFunctions.getSampleStandardDeviation(numbers).orElseThrow(), 1e-15);
+        assertEquals(Optional.empty(), IterableFunctions.getSampleStandardDeviation(List.<Double>of()));
+    }
+
+    @Test
+    void getStatistics() {
+        List<Double> numbers = List.of(2d, 4d, 4d, 4d, 5d, 5d, 7d, 9d);
+        StatisticsAccumulator statistics = IterableFunctions.getStatistics(numbers);
+        assertEquals(numbers.size(), statistics.getCount());
+        assertEquals(IterableFunctions.getArithmeticMean(numbers), statistics.getArithmeticMean());
+        assertEquals(IterableFunctions.getPopulationStandardDeviation(numbers).orElseThrow(), statistics.getPopulationStandardDeviation().orElseThrow(), 1e-15);
+    }
+
+    @Test
+    void primitiveStatistics() {
+        Random random = new Random(9);
+        double[] doubles = new double[1001];
+        int[] ints = new int[1001];
+        long[] longs = new long[1001];
+        List<Double> boxedDoubles = new ArrayList<>();
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = random.nextGaussian();
+            ints[i] = random.nextInt(1000) - 500;
+            longs[i] = ints[i] * 1_000_000L;
+            boxedDoubles.add(doubles[i]);
+        }
+        DoubleBuffer directBuffer = ByteBuffer.allocateDirect(doubles.length * Double.BYTES).asDoubleBuffer().put(doubles).flip();
+
+        assertEquals(IterableFunctions.getSum(boxedDoubles), IterableFunctions.getSum(doubles), 1e-12);
+        assertEquals(IterableFunctions.getSum(doubles), IterableFunctions.getSum(DoubleBuffer.wrap(doubles)));
+        assertEquals(IterableFunctions.getSum(doubles), IterableFunctions.getSum(directBuffer), 1e-12);
+        assertEquals(IterableFunctions.getMinimum(boxedDoubles), IterableFunctions.getMinimum(doubles));
+        assertEquals(IterableFunctions.getMinimum(boxedDoubles), IterableFunctions.getMinimum(directBuffer));
+        assertEquals(IterableFunctions.getMaximum(boxedDoubles), IterableFunctions.getMaximum(doubles));
+        assertEquals(IterableFunctions.getMinimumAndMaximum(boxedDoubles), IterableFunctions.getMinimumAndMaximum(doubles));
+        assertEquals(IterableFunctions.getArithmeticMean(boxedDoubles).orElseThrow(), IterableFunctions.getArithmeticMean(directBuffer).orElseThrow(), 1e-15);
+        assertEquals(IterableFunctions.getSampleStandardDeviation(boxedDoubles).orElseThrow(), IterableFunctions.getSampleStandardDeviation(doubles).orElseThrow(), 1e-12);
+        assertEquals(IterableFunctions.getPopulationStandardDeviation(boxedDoubles).orElseThrow(), IterableFunctions.getPopulationStandardDeviation(doubles).orElseThrow(), 1e-12);
+        assertEquals(IterableFunctions.getProduct(boxedDoubles), IterableFunctions.getProduct(doubles));
+        double[] ones = new double[doubles.length];
+        Arrays.fill(ones, 1);
+        assertEquals(IterableFunctions.getSum(boxedDoubles), IterableFunctions.getDotProduct(doubles, ones), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.getDotProduct(doubles, new double[1]));
+
+        assertEquals(6, IterableFunctions.getSum(new double[]{9, 1, 2, 3, 9}, 1, 4));
+        assertEquals(Optional.of(2d), IterableFunctions.getArithmeticMean(new int[]{9, 1, 2, 3, 9}, 1, 4));
+        assertEquals(Optional.empty(), IterableFunctions.getMinimum(new double[3], 1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> IterableFunctions.getSum(new double[3], 2, 4));
+
+        assertEquals(Arrays.stream(ints).min().orElseThrow(), IterableFunctions.getMinimum(ints).orElseThrow());
+        assertEquals(Arrays.stream(longs).max().orElseThrow(), IterableFunctions.getMaximum(longs).orElseThrow());
+        assertEquals(Arrays.stream(ints).sum(), IterableFunctions.getSum(ints));
+        assertEquals(Arrays.stream(longs).sum(), IterableFunctions.getSum(longs));
+    }
+
+    @Test
+    void parallelReductions() throws Exception {
+        Random random = new Random(17);
+        double[] numbers = new double[100_003];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextGaussian() * Math.pow(10, random.nextInt(20));
+        }
+
+        double singleThreaded = new ForkJoinPool(1).submit(() -> IterableFunctions.getParallelSum(numbers)).get();
+        double manyThreaded = new ForkJoinPool(8).submit(() -> IterableFunctions.getParallelSum(numbers)).get();
+        assertEquals(singleThreaded, manyThreaded);
+        assertEquals(Arrays.stream(numbers).mapToObj(BigDecimal::new).reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue(), manyThreaded, Math.ulp(manyThreaded));
+
+        double[] cancelling = new double[30_000];
+        for (int i = 0; i < cancelling.length; i += 3) {
+            cancelling[i] = 1e16;
+            cancelling[i + 1] = 1;
+            cancelling[i + 2] = -1e16;
+        }
+        assertEquals(10_000, IterableFunctions.getParallelSum(cancelling));
+        assertEquals(Optional.of(1d / 3), IterableFunctions.getParallelArithmeticMean(cancelling));
+
+        List<Double> boxed = Arrays.stream(numbers).boxed().toList();
+        assertEquals(manyThreaded, IterableFunctions.getParallelSum(boxed));
+        assertEquals(manyThreaded, IterableFunctions.getParallelSum(new LinkedList<>(boxed)));
+
+        double[] factors = new double[10_000];
+        Arrays.fill(factors, 1.0001);
+        assertEquals(Math.pow(1.0001, 10_000), IterableFunctions.getParallelProduct(factors), 1e-12);
+        assertEquals(new ForkJoinPool(1).submit(() -> IterableFunctions.getParallelProduct(factors)).get(), IterableFunctions.getParallelProduct(factors));
+        assertEquals(Optional.empty(), IterableFunctions.getParallelArithmeticMean(new double[0]));
+    }
+
+    @Test
+    void parallelProductOfInfinities() {
+        assertEquals(Double.POSITIVE_INFINITY, IterableFunctions.getParallelProduct(new double[]{2, Double.POSITIVE_INFINITY}));
+        assertEquals(Double.NEGATIVE_INFINITY, IterableFunctions.getParallelProduct(new double[]{Double.POSITIVE_INFINITY, -2}));
+        assertEquals(Double.NaN, IterableFunctions.getParallelProduct(new double[]{Double.POSITIVE_INFINITY, 0}));
+
+        double[] manyWithInfinity = new double[10_000];
+        Arrays.fill(manyWithInfinity, 1.0001);
+        manyWithInfinity[7_000] = Double.NEGATIVE_INFINITY;
+        assertEquals(IterableFunctions.getProduct(manyWithInfinity), IterableFunctions.getParallelProduct(manyWithInfinity));
+        assertEquals(Double.NEGATIVE_INFINITY, IterableFunctions.getParallelProduct(manyWithInfinity));
+    }
+
+    @Test
+    void parallelProductOverflow() throws Exception {
+        double[] large = new double[10];
+        Arrays.fill(large, 1e300);
+        assertEquals(Double.POSITIVE_INFINITY, IterableFunctions.getParallelProduct(large));
+        assertEquals(IterableFunctions.getProduct(large), IterableFunctions.getParallelProduct(large));
+
+        double[] overflowingAcrossLeaves = new double[10_000];
+        Arrays.fill(overflowingAcrossLeaves, 1.1);
+        assertEquals(Double.POSITIVE_INFINITY, IterableFunctions.getParallelProduct(overflowingAcrossLeaves));
+        assertEquals(new ForkJoinPool(1).submit(() -> IterableFunctions.getParallelProduct(overflowingAcrossLeaves)).get(),
+                IterableFunctions.getParallelProduct(overflowingAcrossLeaves));
+    }
+
+    @Test
+    void geometricMean() {
+        assertEquals(4, IterableFunctions.getGeometricMean(List.of(2, 8)).orElseThrow(), 1e-12);
+        assertEquals(4, IterableFunctions.getGeometricMean(new double[]{2, 8}).orElseThrow(), 1e-12);
+        assertEquals(4, IterableFunctions.getGeometricMean(DoubleStream.of(2, 8)).orElseThrow(), 1e-12);
+        assertEquals(Optional.empty(), IterableFunctions.getGeometricMean(List.<Double>of()));
+        assertEquals(Optional.empty(), IterableFunctions.getGeometricMean(new double[0]));
+        assertEquals(0, IterableFunctions.getGeometricMean(List.of(0d, 5d)).orElseThrow());
+        assertTrue(IterableFunctions.getGeometricMean(List.of(-1d, 5d)).orElseThrow().isNaN());
+
+        double[] large = new double[50_000];
+        Arrays.fill(large, 1e300);
+        assertEquals(1e300, IterableFunctions.getGeometricMean(large).orElseThrow(), 1e288);
+        assertEquals(50_000 * Math.log(1e300), IterableFunctions.getLogProduct(large), 1e-6);
+        assertEquals(IterableFunctions.getLogProduct(large), IterableFunctions.getLogProduct(Arrays.stream(large).boxed().toList()), 1e-6);
+        assertEquals(1e300, IterableFunctions.getGeometricMean(Arrays.stream(large).parallel()).orElseThrow(), 1e288);
+    }
+
+    @Test
+    void mapLinearly() {
+        Random random = new Random(5);
+        double[] numbers = new double[100_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextGaussian() * 1000;
+        }
+        numbers[70_000] = Double.NaN;
+        List<Double> boxed = IterableFunctions.mapLinearly(Arrays.stream(numbers).boxed().toList(), -1, 1);
+
+        double[] destination = IterableFunctions.mapLinearly(numbers, new double[numbers.length], -1, 1);
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(boxed.get(i), destination[i]);
+        }
+        assertEquals(-1, IterableFunctions.getMinimum(destination).orElseThrow());
+        assertEquals(1, IterableFunctions.getMaximum(destination).orElseThrow(), 1e-15);
+
+        DoubleBuffer direct = ByteBuffer.allocateDirect(numbers.length * Double.BYTES).asDoubleBuffer().put(numbers).flip();
+        IterableFunctions.mapLinearlyInPlace(direct, -1, 1);
+        assertEquals(0, direct.position());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(destination[i], direct.get(i));
+        }
+
+        IterableFunctions.mapLinearlyInPlace(numbers, -1, 1);
+        assertArrayEquals(destination, numbers);
+
+        double[] slice = {5, 0, 10, 20, 5};
+        assertArrayEquals(new double[]{5, 0, 0.5, 1, 5}, IterableFunctions.mapLinearly(slice, 2, 4, slice, 2, 0.5, 1));
+        assertArrayEquals(new double[]{0, 0.5, 1}, IterableFunctions.mapLinearly(DoubleBuffer.wrap(new double[]{1, 2, 3}), DoubleBuffer.allocate(3), 0, 1).array());
+        assertArrayEquals(new double[]{3, 3}, IterableFunctions.mapLinearlyInPlace(new double[]{3, 3}, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.mapLinearly(new double[2], new double[3], 0, 1));
+    }
+
+    @Test
+    void castViews() {
+        List<Number> mixed = new ArrayList<>(List.of(1, 2, 3.5));
+        Iterator<Integer> iterator = IterableFunctions.castView(Integer.class, (Iterable<Number>) mixed).iterator();
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        assertThrows(ClassCastException.class, iterator::next);
+
+        List<Integer> view = IterableFunctions.castView(Integer.class, mixed);
+        assertInstanceOf(RandomAccess.class, view);
+        assertFalse(IterableFunctions.castView(Integer.class, new LinkedList<>(mixed)) instanceof RandomAccess);
+        assertEquals(3, view.size());
+        assertEquals(2, view.get(1));
+        assertThrows(ClassCastException.class, () -> view.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(4));
+        mixed.set(2, 3);
+        assertEquals(List.of(1, 2, 3), view);
+
+        assertSame(mixed, IterableFunctions.castListVerified(Integer.class, mixed));
+        mixed.add(4.5);
+        assertThrows(ClassCastException.class, () -> IterableFunctions.castListVerified(Integer.class, mixed));
+        assertThrows(ClassCastException.class, () -> IterableFunctions.castList(Integer.class, mixed));
+    }
+
+    @Test
+    void getQuantileSketch() {
+        double[] numbers = new double[10_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = numbers.length - i;
+        }
+        QuantileSketch sketch = IterableFunctions.getQuantileSketch(numbers);
+        assertEquals(numbers.length, sketch.getCount());
+        assertEquals(5000, sketch.getQuantile(0.5).orElseThrow(), sketch.getNormalisedRankError() * numbers.length);
+        assertEquals(3, IterableFunctions.getQuantileSketch(List.of(1, 2, 3)).getCount());
+    }
+
+    @Test
+    void exactQuantiles() {
+        Random random = new Random(11);
+        for (int n : new int[]{1, 2, 7, 33, 1000, 100_001}) {
+            double[] numbers = new double[n];
+            for (int i = 0; i < n; i++) {
+                numbers[i] = random.nextInt(n / 2 + 1);
+            }
+            double[] sorted = numbers.clone();
+            Arrays.sort(sorted);
+            int k = random.nextInt(n);
+            assertEquals(sorted[k], IterableFunctions.getOrderStatistic(numbers, k));
+            assertEquals(sorted[0], IterableFunctions.getOrderStatistic(numbers, 0));
+            assertEquals(sorted[n - 1], IterableFunctions.getOrderStatistic(numbers, n - 1));
+
+            double median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+            assertEquals(Optional.of(median), IterableFunctions.getMedian(numbers));
+            assertEquals(Optional.of(median), IterableFunctions.getMedian(Arrays.stream(numbers).boxed().toList()));
+
+            double[] fractions = {0.99, 0, 0.5, 0.999, 1, 0.25};
+            double[] quantiles = IterableFunctions.getQuantiles(numbers, fractions).orElseThrow();
+            for (int i = 0; i < fractions.length; i++) {
+                double rank = fractions[i] * (n - 1);
+                int lower = (int) rank;
+                double expected = lower == n - 1 ? sorted[lower] : sorted[lower] + (rank - lower) * (sorted[lower + 1] - sorted[lower]);
+                assertEquals(expected, quantiles[i], 1e-9);
+            }
+        }
+
+        double[] inPlace = {5, 1, 4, 2, 3};
+        assertEquals(3, IterableFunctions.getOrderStatisticInPlace(inPlace, 2));
+        assertEquals(3, inPlace[2]);
+        assertTrue(inPlace[0] <= 3 && inPlace[1] <= 3 && inPlace[3] >= 3 && inPlace[4] >= 3);
+
+        assertEquals(Optional.of(2.5), IterableFunctions.getQuantile(List.of(1, 2, 3, 4), 0.5));
+        assertEquals(Optional.of(4d), IterableFunctions.getMedianInPlace(new double[]{Double.NaN, 3, 1, 5}));
+        assertTrue(Double.isNaN(IterableFunctions.getOrderStatistic(new double[]{Double.NaN, 1}, 1)));
+        assertEquals(Optional.empty(), IterableFunctions.getMedian(new double[0]));
+        assertThrows(IndexOutOfBoundsException.class, () -> IterableFunctions.getOrderStatistic(new double[2], 2));
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.getQuantile(new double[2], -0.1));
+    }
+
+    @Test
+    void rollingStatistics() {
+        Random random = new Random(23);
+        double[] numbers = new double[2_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = 1e6 + random.nextGaussian();
+        }
+        int windowSize = 50;
+        double[] means = IterableFunctions.getRollingArithmeticMeans(numbers, windowSize);
+        double[] deviations = IterableFunctions.getRollingSampleStandardDeviations(numbers, windowSize);
+        double[] minima = IterableFunctions.getRollingMinima(numbers, windowSize);
+        double[] maxima = IterableFunctions.getRollingMaxima(numbers, windowSize);
+        assertEquals(numbers.length - windowSize + 1, means.length);
+        for (int i = 0; i < means.length; i++) {
+            assertEquals(IterableFunctions.getArithmeticMean(numbers, i, i + windowSize).orElseThrow(), means[i], 1e-8);
+            assertEquals(IterableFunctions.getSampleStandardDeviation(numbers, i, i + windowSize).orElseThrow(), deviations[i], 1e-6);
+            assertEquals(IterableFunctions.getMinimum(numbers, i, i + windowSize).orElseThrow(), minima[i]);
+            assertEquals(IterableFunctions.getMaximum(numbers, i, i + windowSize).orElseThrow(), maxima[i]);
+        }
+        assertEquals(0, IterableFunctions.getRollingMaxima(new double[2], 3).length);
+    }
+
+    @Test
+    void rollingStatisticsWithInfinities() {
+        double inf = Double.POSITIVE_INFINITY;
+        double[] means = IterableFunctions.getRollingArithmeticMeans(new double[]{1, inf, 2, 3, 4, -inf, 5, 6, 7}, 3);
+        assertArrayEquals(new double[]{inf, inf, 3, -inf, -inf, -inf, 6}, means);
+        double[] deviations = IterableFunctions.getRollingPopulationStandardDeviations(new double[]{1, inf, 2, 3, 4}, 3);
+        assertTrue(Double.isNaN(deviations[0]));
+        assertEquals(Math.sqrt(2d / 3), deviations[2], 1e-15);
+        assertTrue(Double.isNaN(IterableFunctions.getRollingArithmeticMeans(new double[]{inf, -inf, 1}, 2)[0]));
+        assertEquals(Double.NEGATIVE_INFINITY, IterableFunctions.getRollingArithmeticMeans(new double[]{inf, -inf, 1}, 2)[1]);
+    }
+
+    @Test
+    void exponentialMovingStatistics() {
+        double[] numbers = {1, 3, Double.NaN, 5};
+        assertArrayEquals(new double[]{1, 2, 2, 3.5}, IterableFunctions.getExponentialMovingAverages(numbers, 0.5));
+        // Variances: 0, then 0.5 * (0 + 0.5 * 4) = 1, then 0.5 * (1 + 0.5 * 9) = 2.75
+        assertArrayEquals(new double[]{0, 1, 1, Math.sqrt(2.75)}, IterableFunctions.getExponentialMovingStandardDeviations(numbers, 0.5), 1e-15);
+        assertTrue(Double.isNaN(IterableFunctions.getExponentialMovingAverages(new double[]{Double.NaN, 1}, 0.5)[0]));
+
+        double[] covariances = IterableFunctions.getExponentialMovingCovariances(new double[]{1, 3, 5}, new double[]{2, 6, 10}, 0.5);
+        assertArrayEquals(new double[]{0, 2, 5.5}, covariances, 1e-15);
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.getExponentialMovingCovariances(new double[1], new double[2], 0.5));
+    }
+
+    private static double[] randomIntegersWithNaN(long seed) {
+        Random random = new Random(seed);
+        double[] numbers = new double[200_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt(50_000);
+        }
+        numbers[17] = Double.NaN;
+        return numbers;
+    }
+
+    @Test
+    void largestAndSmallestOfArrays() {
+        double[] numbers = randomIntegersWithNaN(29);
+        double[] sorted = Arrays.stream(numbers).filter(x -> !Double.isNaN(x)).sorted().toArray();
+        double[] expectedLargest = new double[100];
+        for (int i = 0; i < 100; i++) {
+            expectedLargest[i] = sorted[sorted.length - 1 - i];
+        }
+        assertArrayEquals(expectedLargest, IterableFunctions.getLargest(numbers, 100));
+        assertArrayEquals(Arrays.copyOf(sorted, 100), IterableFunctions.getSmallest(numbers, 100));
+        assertArrayEquals(new double[0], IterableFunctions.getSmallest(numbers, 0));
+    }
+
+    @Test
+    void parallelLargestAndSmallestMatchSequential() {
+        double[] numbers = randomIntegersWithNaN(31);
+        assertArrayEquals(IterableFunctions.getLargest(numbers, 100), IterableFunctions.getParallelLargest(numbers, 100));
+        assertArrayEquals(IterableFunctions.getSmallest(numbers, 100), IterableFunctions.getParallelSmallest(numbers, 100));
+        assertArrayEquals(IterableFunctions.getIndicesOfLargest(numbers, 100), IterableFunctions.getParallelIndicesOfLargest(numbers, 100));
+        assertArrayEquals(IterableFunctions.getIndicesOfSmallest(numbers, 100), IterableFunctions.getParallelIndicesOfSmallest(numbers, 100));
+    }
+
+    @Test
+    void indicesOfLargestBreakTiesByIndexAndSkipNaN() {
+        assertArrayEquals(new int[]{1, 3, 0}, IterableFunctions.getIndicesOfLargest(new double[]{2, 5, Double.NaN, 5}, 5));
+    }
+
+    @Test
+    void largestAndSmallestOfIterables() {
+        List<Integer> values = List.of(4, 9, 1, 9, 7);
+        assertEquals(List.of(9, 9, 7), IterableFunctions.getLargest(values, 3));
+        assertEquals(List.of(1, 4), IterableFunctions.getSmallest(new LinkedList<>(values), 2));
+        assertEquals(List.of(1, 4, 7, 9, 9), IterableFunctions.getSmallest(values, 10));
+    }
+
+    @Test
+    void largestAndSmallestSimultaneously() {
+        List<Integer> values = List.of(4, 9, 1, 9, 7);
+        List<String> companions = List.of("a", "b", "c", "d", "e");
+        Pair<List<Integer>, List<String>> largest = IterableFunctions.getLargestSimultaneously(values, companions, 2);
+        assertEquals(List.of(9, 9), largest.first());
+        assertEquals(List.of("b", "d"), largest.second());
+        assertEquals(List.of("c"), IterableFunctions.getSmallestSimultaneously(values, companions, 1).second());
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.getLargestSimultaneously(values, List.of("a"), 1));
+    }
+
+    @Test
+    void largestRejectsNegativeK() {
+        assertThrows(IllegalArgumentException.class, () -> IterableFunctions.getLargest(new double[3], -1));
+    }
+
+    @Test
+    void reductionsOverDoubleColumns() {
+        double[] numbers = new double[1000];
+        Random random = new Random(31);
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextDouble() * 100 + 1;
+        }
+        DoubleColumn column = DoubleColumn.allocate(numbers.length, 64);
+        column.copyFrom(numbers, 0, 0, numbers.length);
+        assertEquals(IterableFunctions.getSum(numbers), IterableFunctions.getSum(column), 1e-9);
+        assertEquals(IterableFunctions.getMinimum(numbers), IterableFunctions.getMinimum(column));
+        assertEquals(IterableFunctions.getMaximum(numbers), IterableFunctions.getMaximum(column));
+        assertEquals(IterableFunctions.getArithmeticMean(numbers).orElseThrow(), IterableFunctions.getArithmeticMean(column).orElseThrow(), 1e-12);
+        assertEquals(IterableFunctions.getSampleStandardDeviation(numbers).orElseThrow(), IterableFunctions.getSampleStandardDeviation(column).orElseThrow(), 1e-9);
+        assertEquals(IterableFunctions.getPopulationStandardDeviation(numbers).orElseThrow(), IterableFunctions.getPopulationStandardDeviation(column).orElseThrow(), 1e-9);
+        assertEquals(IterableFunctions.getGeometricMean(numbers).orElseThrow(), IterableFunctions.getGeometricMean(column).orElseThrow(), 1e-9);
+        assertEquals(IterableFunctions.getLogProduct(numbers), IterableFunctions.getLogProduct(column), 1e-9);
+        assertEquals(numbers.length, IterableFunctions.getStatistics(column).getCount());
+        assertEquals(IterableFunctions.getSum(numbers, 60, 200), IterableFunctions.getSum(column.slice(60, 200)), 1e-9);
+    }
+
+    @Test
+    void reductionsOverMappedDoubleColumns(@TempDir Path directory) throws Exception {
+        DoubleColumn created = DoubleColumn.create(directory.resolve("column.bin"), 3);
+        created.copyFrom(new double[]{1.5, 2.5, 3.5}, 0, 0, 3);
+        assertEquals(7.5, IterableFunctions.getSum(DoubleColumn.map(directory.resolve("column.bin"), false)));
+    }
+
+    @Test
+    void reductionsOverEmptyDoubleColumns() {
+        assertEquals(0, IterableFunctions.getSum(DoubleColumn.allocate(0)));
+        assertEquals(Optional.empty(), IterableFunctions.getArithmeticMean(DoubleColumn.allocate(0)));
+        assertEquals(Optional.empty(), IterableFunctions.getMaximum(DoubleColumn.of()));
+        assertEquals(Optional.empty(), IterableFunctions.getSampleStandardDeviation(DoubleColumn.of()));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericKernelsTest {
+    private final NumericKernels scalarKernels = new ScalarKernels();
+
+    @Test
+    void usesVectorKernelsWhenAvailable() {
+        boolean vectorModulePresent = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vectorModulePresent ? "VectorKernels" : "ScalarKernels", NumericKernels.INSTANCE.getClass().getSimpleName());
+    }
+
+    @Test
+    void kernelsAgree() {
+        Random random = new Random(13);
+        double[] first = new double[1037], second = new double[1037];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = random.nextGaussian() * 1000;
+            second[i] = random.nextGaussian();
+        }
+        first[500] = Double.NaN;
+
+        for (int[] range : new int[][]{{0, 1037}, {3, 1030}, {10, 13}, {7, 8}}) {
+            int from = range[0], to = range[1];
+            assertEquals(scalarKernels.sum(second, from, to), NumericKernels.INSTANCE.sum(second, from, to), 1e-9);
+            assertEquals(scalarKernels.minimum(first, from, to), NumericKernels.INSTANCE.minimum(first, from, to));
+            assertEquals(scalarKernels.maximum(first, from, to), NumericKernels.INSTANCE.maximum(first, from, to));
+            assertArrayEquals(scalarKernels.minimumAndMaximum(first, from, to), NumericKernels.INSTANCE.minimumAndMaximum(first, from, to));
+            assertEquals(scalarKernels.sumOfSquaredDeviations(second, from, to, 0.5), NumericKernels.INSTANCE.sumOfSquaredDeviations(second, from, to, 0.5), 1e-9);
+            assertEquals(scalarKernels.dotProduct(first, second, from, 500), NumericKernels.INSTANCE.dotProduct(first, second, from, 500), 1e-6);
+        }
+
+        double[][] withNaNs = {{0, 5, Double.NaN}, {0, Double.NaN, -5}, {0, Double.NaN, Double.NaN, 3, -2}, {1, Double.NaN, 4, Double.NaN, -1, 2}};
+        double[][] expected = {{0, 5}, {-5, 0}, {-2, 3}, {-1, 4}};
+        for (int i = 0; i < withNaNs.length; i++) {
+            assertArrayEquals(expected[i], scalarKernels.minimumAndMaximum(withNaNs[i], 0, withNaNs[i].length));
+            assertArrayEquals(expected[i], NumericKernels.INSTANCE.minimumAndMaximum(withNaNs[i], 0, withNaNs[i].length));
+        }
+        double[] sparseNaNs = second.clone();
+        for (int i = 1; i < sparseNaNs.length; i += 3) {
+            sparseNaNs[i] = Double.NaN;
+        }
+        assertArrayEquals(new double[]{scalarKernels.minimum(sparseNaNs, 0, 1037), scalarKernels.maximum(sparseNaNs, 0, 1037)},
+                scalarKernels.minimumAndMaximum(sparseNaNs, 0, 1037));
+        assertArrayEquals(scalarKernels.minimumAndMaximum(sparseNaNs, 0, 1037), NumericKernels.INSTANCE.minimumAndMaximum(sparseNaNs, 0, 1037));
+
+        first[0] = Double.NaN;
+        assertTrue(Double.isNaN(NumericKernels.INSTANCE.minimum(first, 0, first.length)));
+        assertTrue(Double.isNaN(NumericKernels.INSTANCE.maximum(first, 0, first.length)));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import types.tuples.Pair;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortingFunctionsTest {
+
+    @Test
+    void argsort() {
+        double[] doubleKeys = {3d, -1d, Double.NaN, 0d, -0d, 3d, Double.NEGATIVE_INFINITY, -1d};
+        assertArrayEquals(new int[]{6, 1, 7, 4, 3, 0, 5, 2}, SortingFunctions.argsort(doubleKeys));
+
+        long[] longKeys = {5L, Long.MIN_VALUE, 5L, -7L, Long.MAX_VALUE};
+        assertArrayEquals(new int[]{1, 3, 0, 2, 4}, SortingFunctions.argsort(longKeys));
+
+        int[] intKeys = {2, Integer.MIN_VALUE, 2, -3, Integer.MAX_VALUE, 0};
+        assertArrayEquals(new int[]{1, 3, 5, 0, 2, 4}, SortingFunctions.argsort(intKeys));
+
+        assertArrayEquals(new int[]{2, 0, 1}, SortingFunctions.argsort(List.of("b", "c", "a")));
+        assertArrayEquals(new int[0], SortingFunctions.argsort(new double[0]));
+    }
+
+    @Test
+    void argsortMatchesComparatorSort() {
+        Random random = new Random(42);
+        int n = 10_000;
+        List<Double> doubles = new ArrayList<>(n);
+        List<String> strings = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            doubles.add((double) random.nextInt(100));
+            strings.add(Integer.toString(random.nextInt(100)));
+        }
+
+        assertArrayEquals(comparatorArgsort(doubles), SortingFunctions.argsort(doubles));
+        assertArrayEquals(comparatorArgsort(strings), SortingFunctions.argsort(strings));
+    }
+
+    @Test
+    void radixSort() {
+        Random random = new Random(3);
+        int n = SortingFunctions.RADIX_SORT_THRESHOLD * 2;
+        double[] doubles = new double[n];
+        List<Double> boxedDoubles = new ArrayList<>(n);
+        long[] longs = new long[n];
+        List<Long> boxedLongs = new ArrayList<>(n);
+        double[] specialValues = {Double.NaN, -0d, 0d, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.MIN_VALUE};
+        for (int i = 0; i < n; i++) {
+            doubles[i] = i % 10 == 0 ? specialValues[random.nextInt(specialValues.length)] : random.nextGaussian() * 100;
+            boxedDoubles.add(doubles[i]);
+            longs[i] = random.nextBoolean() ? random.nextLong() : random.nextInt(50) - 25;
+            boxedLongs.add(longs[i]);
+        }
+
+        assertArrayEquals(comparatorArgsort(boxedDoubles), SortingFunctions.argsort(doubles));
+        assertArrayEquals(comparatorArgsort(boxedLongs), SortingFunctions.argsort(longs));
+    }
+
+    @Test
+    void parallelArgsort() {
+        Random random = new Random(7);
+        int n = 100_000;
+        double[] doubles = new double[n];
+        List<String> strings = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            doubles[i] = random.nextInt(1000);
+            strings.add(Integer.toString(random.nextInt(1000)));
+        }
+
+        assertArrayEquals(SortingFunctions.argsort(doubles), SortingFunctions.parallelArgsort(doubles));
+        assertArrayEquals(SortingFunctions.argsort(strings), SortingFunctions.parallelArgsort(strings));
+    }
+
+    @Test
+    void externalSortSimultaneously(@TempDir Path temporaryDirectory) throws IOException {
+        Random random = new Random(11);
+        List<Double> values = new ArrayList<>();
+        List<String> companions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add((double) random.nextInt(20));
+            companions.add("companion " + i);
+        }
+        Pair<List<Double>, List<String>> expected = IterableFunctions.sortListsSimultaneously(values, companions);
+
+        try (SortingFunctions.ExternalSortResult<Double, String> sorted = SortingFunctions.externalSortSimultaneously(
+                IterableFunctions.zipped(values, companions), SortingFunctions.Codec.DOUBLE, SortingFunctions.Codec.STRING, 7, temporaryDirectory)) {
+            assertEquals(15, sorted.getRunCount());
+            assertIterableEquals(IterableFunctions.zipToList(expected.first(), expected.second()), sorted);
+            assertIterableEquals(IterableFunctions.zipToList(expected.first(), expected.second()), sorted);
+        }
+        try (var files = Files.list(temporaryDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void externalSortMergesInPasses(@TempDir Path temporaryDirectory) throws IOException {
+        Random random = new Random(17);
+        List<Long> values = new ArrayList<>();
+        List<Integer> companions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add((long) random.nextInt(50));
+            companions.add(i);
+        }
+        Pair<List<Long>, List<Integer>> expected = IterableFunctions.sortListsSimultaneously(values, companions);
+
+        // 334 runs of 3 pairs, merged 4 at a time: 84, then 21, then 6, then 2 runs
+        try (SortingFunctions.ExternalSortResult<Long, Integer> sorted = SortingFunctions.externalSortSimultaneously(
+                IterableFunctions.zipped(values, companions), SortingFunctions.Codec.LONG, SortingFunctions.Codec.INTEGER, 3, temporaryDirectory, 4)) {
+            assertEquals(2, sorted.getRunCount());
+            try (var files = Files.list(temporaryDirectory)) {
+                assertEquals(2, files.count());
+            }
+            assertIterableEquals(IterableFunctions.zipToList(expected.first(), expected.second()), sorted);
+        }
+        try (var files = Files.list(temporaryDirectory)) {
+            assertEquals(0, files.count());
+        }
+        assertThrows(IllegalArgumentException.class, () -> SortingFunctions.externalSortSimultaneously(
+                IterableFunctions.zipped(values, companions), SortingFunctions.Codec.LONG, SortingFunctions.Codec.INTEGER, 3, temporaryDirectory, 1));
+    }
+
+    @Test
+    void extremeIndicesWithLargeK() {
+        Random random = new Random(37);
+        double[] numbers = new double[100_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt(1000);
+        }
+        numbers[12_345] = Double.NaN;
+        for (int k : new int[]{SortingFunctions.PARALLEL_SORT_GRANULARITY, 30_000, 99_999, 150_000}) {
+            for (boolean largest : new boolean[]{true, false}) {
+                int[] sequential = SortingFunctions.extremeIndices(numbers, k, largest, false);
+                assertEquals(Math.min(k, numbers.length - 1), sequential.length);
+                assertArrayEquals(sequential, SortingFunctions.extremeIndices(numbers, k, largest, true));
+            }
+        }
+        int[] all = SortingFunctions.extremeIndices(numbers, numbers.length, false, true);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(numbers[all[i - 1]] < numbers[all[i]] || numbers[all[i - 1]] == numbers[all[i]] && all[i - 1] < all[i]);
+        }
+    }
+
+    @Test
+    void permuted() {
+        int[] permutation = {2, 0, 1};
+        assertIterableEquals(List.of("c", "a", "b"), SortingFunctions.permuted(List.of("a", "b", "c"), permutation));
+        assertIterableEquals(List.of("c", "a", "b"), SortingFunctions.permuted(new LinkedList<>(List.of("a", "b", "c")), permutation));
+        assertArrayEquals(new double[]{3, 1, 2}, SortingFunctions.permuted(new double[]{1, 2, 3}, permutation));
+        assertThrows(IllegalArgumentException.class, () -> SortingFunctions.permuted(new long[2], permutation));
+    }
+
+    private static <T extends Comparable<T>> int[] comparatorArgsort(List<T> keys) {
+        Integer[] indices = new Integer[keys.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, Comparator.comparing(keys::get));
+        return Arrays.stream(indices).mapToInt(Integer::intValue).toArray();
+    }
+}
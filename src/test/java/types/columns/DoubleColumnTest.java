@@ -0,0 +1,172 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.columns;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleColumnTest {
+    private static DoubleColumn counting(int length, int chunkLength) {
+        DoubleColumn column = DoubleColumn.allocate(length, chunkLength);
+        for (int i = 0; i < length; i++) {
+            column.set(i, i);
+        }
+        return column;
+    }
+
+    @Test
+    void allocatesZeroes() {
+        DoubleColumn column = DoubleColumn.allocate(5);
+        assertEquals(5, column.length());
+        assertArrayEquals(new double[5], column.toArray());
+    }
+
+    @Test
+    void getAndSetAcrossChunks() {
+        DoubleColumn column = counting(10, 4);
+        assertEquals(3, column.get(3));
+        assertEquals(4, column.get(4));
+        assertEquals(9, column.get(9));
+        assertThrows(IndexOutOfBoundsException.class, () -> column.get(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> column.set(-1, 0));
+    }
+
+    @Test
+    void bulkCopiesSpanChunks() {
+        DoubleColumn column = DoubleColumn.allocate(10, 4);
+        column.copyFrom(new double[]{9, 1, 2, 3, 4, 5, 9}, 1, 2, 5);
+        double[] copied = new double[7];
+        column.copyTo(1, copied, 1, 6);
+        assertArrayEquals(new double[]{0, 0, 1, 2, 3, 4, 5}, copied);
+        assertThrows(IndexOutOfBoundsException.class, () -> column.copyFrom(new double[3], 0, 8, 3));
+    }
+
+    @Test
+    void slicesShareMemory() {
+        DoubleColumn column = counting(10, 4);
+        DoubleColumn slice = column.slice(3, 9);
+        assertEquals(6, slice.length());
+        assertArrayEquals(new double[]{3, 4, 5, 6, 7, 8}, slice.toArray());
+        slice.set(0, -1);
+        assertEquals(-1, column.get(3));
+        assertArrayEquals(new double[]{5, 6}, slice.slice(2, 4).toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> column.slice(5, 11));
+    }
+
+    @Test
+    void asBuffersCoversExactlyTheColumn() {
+        List<DoubleBuffer> buffers = counting(10, 4).slice(3, 9).asBuffers();
+        assertEquals(3, buffers.size());
+        assertEquals(List.of(1, 4, 1), buffers.stream().map(DoubleBuffer::remaining).toList());
+        assertEquals(3, buffers.get(0).get(0));
+        assertEquals(8, buffers.get(2).get(0));
+    }
+
+    @Test
+    void copiesBetweenColumns() {
+        DoubleColumn source = counting(500, 64);
+        DoubleColumn destination = DoubleColumn.allocate(500, 128);
+        destination.copyFrom(source, 100, 30, 400);
+        assertArrayEquals(source.slice(100, 500).toArray(), destination.slice(30, 430).toArray());
+        assertEquals(0, destination.get(29));
+    }
+
+    @Test
+    void overlappingCopyForwards() {
+        DoubleColumn column = counting(10, 4);
+        column.copyFrom(column, 0, 3, 6);
+        assertArrayEquals(new double[]{0, 1, 2, 0, 1, 2, 3, 4, 5, 9}, column.toArray());
+    }
+
+    @Test
+    void overlappingCopyBackwards() {
+        DoubleColumn column = counting(10, 4);
+        column.copyFrom(column.slice(4, 10), 0, 1, 6);
+        assertArrayEquals(new double[]{0, 4, 5, 6, 7, 8, 9, 7, 8, 9}, column.toArray());
+    }
+
+    @Test
+    void overlappingCopiesMatchArraycopy() {
+        for (int from = 0; from < 10; from++) {
+            for (int to = 0; to < 10; to++) {
+                for (int count = 0; count <= 10 - Math.max(from, to); count++) {
+                    DoubleColumn column = counting(10, 4);
+                    double[] expected = column.toArray();
+                    System.arraycopy(expected, from, expected, to, count);
+                    column.copyFrom(column, from, to, count);
+                    assertArrayEquals(expected, column.toArray(), "from " + from + " to " + to + " count " + count);
+                }
+            }
+        }
+    }
+
+    @Test
+    void copyOntoSameRangeThroughDifferentSlices() {
+        DoubleColumn column = counting(10, 4);
+        column.slice(2, 10).copyFrom(column.slice(0, 8), 3, 1, 5);
+        assertArrayEquals(counting(10, 4).toArray(), column.toArray());
+    }
+
+    @Test
+    void createdFilesMapBack(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("column.bin");
+        DoubleColumn created = DoubleColumn.create(file, 3);
+        created.copyFrom(new double[]{1.5, 2.5, 3.5}, 0, 0, 3);
+        created.force();
+        assertEquals(24, Files.size(file));
+        assertArrayEquals(new double[]{1.5, 2.5, 3.5}, DoubleColumn.map(file, false).toArray());
+    }
+
+    @Test
+    void writableMappingsWriteThrough(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("column.bin");
+        DoubleColumn.create(file, 2);
+        DoubleColumn.map(file, true).set(1, 7);
+        assertEquals(7, DoubleColumn.map(file, false).get(1));
+    }
+
+    @Test
+    void readOnlyMappingsRejectWrites(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("column.bin");
+        DoubleColumn.create(file, 2);
+        DoubleColumn mapped = DoubleColumn.map(file, false);
+        assertThrows(ReadOnlyBufferException.class, () -> mapped.set(0, 1));
+    }
+
+    @Test
+    void rejectsFilesOfPartialDoubles(@TempDir Path directory) throws IOException {
+        Path file = Files.write(directory.resolve("column.bin"), new byte[12]);
+        assertThrows(IllegalArgumentException.class, () -> DoubleColumn.map(file, false));
+    }
+
+    @Test
+    void rejectsInvalidLengths() {
+        assertThrows(IllegalArgumentException.class, () -> DoubleColumn.allocate(-1));
+        assertThrows(IllegalArgumentException.class, () -> DoubleColumn.allocate(10, 3));
+        assertThrows(IllegalArgumentException.class, () -> DoubleColumn.allocate(10, DoubleColumn.DEFAULT_CHUNK_LENGTH * 2));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.cursors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongZipCursorTest {
+    @Test
+    void walksArraysToShorterEnd() {
+        LongZipCursor cursor = new LongZipCursor(new long[]{1, 2, 3}, new long[]{4, 5});
+        long dotProduct = 0;
+        while (cursor.advance()) {
+            dotProduct += cursor.first() * cursor.second();
+        }
+        assertEquals(14, dotProduct);
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    void unboxesIterablesOfAnyNumberType() {
+        LongZipCursor cursor = new LongZipCursor(List.of(1, 2), List.of(3L, 4.0));
+        assertTrue(cursor.advance());
+        assertEquals(1, cursor.first());
+        assertEquals(3, cursor.second());
+        assertTrue(cursor.advance());
+        assertEquals(4, cursor.second());
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    void rejectsReadsWhenNotPositioned() {
+        LongZipCursor cursor = new LongZipCursor(new long[]{1}, new long[]{2});
+        assertThrows(NoSuchElementException.class, cursor::first);
+        assertTrue(cursor.advance());
+        assertFalse(cursor.advance());
+        assertThrows(NoSuchElementException.class, cursor::second);
+    }
+}
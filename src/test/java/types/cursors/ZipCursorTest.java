@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.cursors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipCursorTest {
+    @Test
+    void walksSameIndexPairs() {
+        ZipCursor<String, Integer> cursor = new ZipCursor<>(List.of("a", "b"), List.of(1, 2));
+        List<String> pairs = new ArrayList<>();
+        while (cursor.advance()) {
+            pairs.add(cursor.first() + cursor.second());
+        }
+        assertEquals(List.of("a1", "b2"), pairs);
+    }
+
+    @Test
+    void stopsAtShorterInput() {
+        ZipCursor<String, Integer> cursor = new ZipCursor<>(List.of("a", "b", "c"), List.of(1));
+        assertTrue(cursor.advance());
+        assertFalse(cursor.advance());
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    void rejectsReadsWhenNotPositioned() {
+        ZipCursor<String, Integer> cursor = new ZipCursor<>(List.of("a"), List.of(1));
+        assertThrows(NoSuchElementException.class, cursor::first);
+        cursor.advance();
+        cursor.advance();
+        assertThrows(NoSuchElementException.class, cursor::second);
+    }
+}
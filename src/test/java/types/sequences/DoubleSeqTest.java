@@ -0,0 +1,96 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.sequences;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.DoubleBuffer;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleSeqTest {
+    private final double[] values = {3, Double.NaN, 1, 4, 1, 5};
+
+    @Test
+    void readsEachKindOfSource() {
+        assertArrayEquals(new double[]{1, 4}, DoubleSeq.of(values, 2, 4).toArray());
+        DoubleBuffer buffer = DoubleBuffer.wrap(new double[]{7, 8, 9}).position(1);
+        assertArrayEquals(new double[]{8, 9}, DoubleSeq.of(buffer).toArray());
+        assertEquals(1, buffer.position());
+        assertArrayEquals(new double[]{1, 2.5, 3}, DoubleSeq.of(List.of(1, 2.5, 3L)).toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> DoubleSeq.of(values, 4, 7));
+    }
+
+    @Test
+    void minimumAndMaximumSkipNaN() {
+        assertEquals(Optional.of(1d), DoubleSeq.of(values).getMinimum());
+        assertEquals(Optional.of(5d), DoubleSeq.of(values).getMaximum());
+        assertEquals(Optional.empty(), DoubleSeq.of().getMaximum());
+    }
+
+    @Test
+    void reversesAndLimits() {
+        assertArrayEquals(new double[]{5, 1, 4}, DoubleSeq.of(values, 2, 6).reversed().limit(3).toArray());
+        assertArrayEquals(new double[]{2, 1}, DoubleSeq.of(values).filter(x -> x < 4).reversed().zip(new double[]{1, 0}, Double::sum).toArray());
+    }
+
+    @Test
+    void zipStopsAtShorterInput() {
+        assertArrayEquals(new double[]{4, 6}, DoubleSeq.of(1, 2, 3).zip(List.of(3, 4), Double::sum).toArray());
+        assertArrayEquals(new double[]{4}, DoubleSeq.of(1).zip(new double[]{3, 4}, Double::sum).toArray());
+    }
+
+    @Test
+    void followedByConcatenates() {
+        assertArrayEquals(new double[]{1, 2, 3}, DoubleSeq.of(1, 2).followedBy(DoubleSeq.of(3)).toArray());
+        assertEquals(5, DoubleSeq.of(List.of(1, 2.5, 3L)).followedBy(DoubleSeq.of(-1.5)).getStatistics().getSum());
+    }
+
+    @Test
+    void inPairsAndWindows() {
+        assertArrayEquals(new double[]{-2, 3, -3, 4}, DoubleSeq.of(values).filter(x -> !Double.isNaN(x)).inPairs((x, y) -> y - x).toArray());
+        assertEquals(16, DoubleSeq.of(values).filter(x -> !Double.isNaN(x)).tumblingWindows(2).mapToDouble(w -> w.get(0)).followedBy(DoubleSeq.of(4)).getSum());
+        assertEquals(Optional.of(16d / 6), DoubleSeq.of(values).slidingWindows(2).mapToDouble(w -> w.get(0) + w.get(1)).filter(x -> !Double.isNaN(x)).getArithmeticMean().map(x -> x / 2));
+        assertThrows(IllegalArgumentException.class, () -> DoubleSeq.of(values).slidingWindows(0));
+    }
+
+    @Test
+    void sumIsCompensated() {
+        double[] cancelling = new double[30_000];
+        for (int i = 0; i < cancelling.length; i += 3) {
+            cancelling[i] = 1e16;
+            cancelling[i + 1] = 1;
+            cancelling[i + 2] = -1e16;
+        }
+        assertEquals(10_000, DoubleSeq.of(cancelling).getSum());
+        assertEquals(Double.POSITIVE_INFINITY, DoubleSeq.of(1, Double.POSITIVE_INFINITY, -1).getSum());
+        assertEquals(0, DoubleSeq.of().getSum());
+    }
+
+    @Test
+    void reductions() {
+        DoubleSeq finite = DoubleSeq.of(values).filter(x -> !Double.isNaN(x));
+        assertEquals(14, finite.getSum());
+        assertEquals(5, finite.getCount());
+        assertEquals(60, finite.reduce(1, (x, y) -> x * y));
+        assertEquals(Optional.of(2.8), finite.getArithmeticMean());
+        assertEquals(Optional.empty(), DoubleSeq.of().getArithmeticMean());
+        assertEquals(List.of(3d, 1d), finite.boxed().limit(2).toList());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.sequences;
+
+import functions.IterableFunctions;
+import org.junit.jupiter.api.Test;
+import types.tuples.Pair;
+import types.windows.Window;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeqTest {
+    private final List<Integer> numbers = List.of(1, 2, 3, 4, 5);
+
+    @Test
+    void mapsAndFiltersInOnePass() {
+        List<Integer> seen = new ArrayList<>();
+        List<Integer> result = Seq.of(numbers).map(x -> {
+            seen.add(x);
+            return x * 10;
+        }).filter(x -> x > 20).toList();
+        assertEquals(List.of(30, 40, 50), result);
+        assertEquals(numbers, seen);
+    }
+
+    @Test
+    void limitStopsPullingFromTheSource() {
+        Iterable<Integer> naturals = Stream.iterate(1, x -> x + 1)::iterator;
+        assertEquals(List.of(1, 2, 3), Seq.of(naturals).limit(3).toList());
+        assertEquals(0, Seq.of(numbers).limit(0).getCount());
+    }
+
+    @Test
+    void reversesListsAndPipelines() {
+        assertEquals(List.of(5, 4, 3, 2, 1), Seq.of(numbers).reversed().toList());
+        assertEquals(List.of(5, 4, 3, 2, 1), Seq.of(new LinkedList<>(numbers)).reversed().toList());
+        assertEquals(List.of(5, 3, 1), Seq.of(numbers).filter(x -> x % 2 == 1).reversed().toList());
+    }
+
+    @Test
+    void followedByConcatenates() {
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), Seq.of(1, 2).followedBy(List.of(3, 4)).followedBy(Seq.of(5, 6)).toList());
+        assertEquals(List.of(1, 2, 7), Seq.of(1, 2, 3).limit(2).followedBy(List.of(7)).toList());
+        assertEquals(List.of(7), Seq.<Integer>empty().followedBy(List.of(7)).toList());
+    }
+
+    @Test
+    void followedByStopsWhenDownstreamIsSatisfied() {
+        assertEquals(List.of(1, 2, 3), Seq.of(1, 2).followedBy(Seq.of(3, 4)).limit(3).toList());
+    }
+
+    @Test
+    void stitchedMatchesIterableFunctions() {
+        List<Integer> first = List.of(1, 2, 3), second = List.of(10, 20, 30), third = List.of(100, 200);
+        List<Integer> expected = new ArrayList<>();
+        IterableFunctions.stitched(first, second, third).forEach(expected::add);
+        assertEquals(List.of(1, 10, 100, 2, 20, 200, 3, 30), expected);
+        assertEquals(expected, Seq.of(first).stitched(second, third).toList());
+        assertEquals(List.of(1, 10, 2, 20, 3, 30), Seq.of(first).stitched(second).toList());
+        assertEquals(List.of(1, 2, 3), Seq.of(first).stitched().toList());
+    }
+
+    @Test
+    void stitchedStopsWhenDownstreamIsSatisfied() {
+        assertEquals(List.of(1, 10, 2), Seq.of(1, 2, 3).stitched(List.of(10, 20, 30)).limit(3).toList());
+        assertEquals(List.of(1, 10, 2, 20), Seq.of(1, 2, 3).stitched(List.of(10, 20, 30)).limit(4).toList());
+    }
+
+    @Test
+    void zipStopsAtShorterInput() {
+        assertEquals(List.of(new Pair<>(1, "a"), new Pair<>(2, "b")), Seq.of(numbers).zip(List.of("a", "b")).toList());
+        assertEquals(List.of("1a", "2b"), Seq.of(numbers).zip(List.of("a", "b"), (x, y) -> x + y).toList());
+        assertArrayEquals(new double[]{1.5, 4}, Seq.of(1, 2).zipToDouble(List.of(0.5, 1.0, 9.0), (x, y) -> x + y * x).toArray());
+    }
+
+    @Test
+    void inPairsMatchesIterableFunctions() {
+        assertEquals(List.of(new Pair<>(1, 2), new Pair<>(2, 3)), Seq.of(1, 2, 3).inPairs().toList());
+        assertEquals(IterableFunctions.inPairs(numbers).iterator().next(), Seq.of(numbers).inPairs().toList().get(0));
+        assertEquals(List.of(1, 1, 1, 1), Seq.of(numbers).inPairs((x, y) -> y - x).toList());
+        assertEquals(0, Seq.of(List.of(1)).inPairs().getCount());
+    }
+
+    @Test
+    void inPairsToDoubleComputesReturns() {
+        DoubleSeq returns = Seq.of(100d, 110d, 99d, 108.9d).inPairsToDouble((previous, next) -> next / previous - 1);
+        assertArrayEquals(new double[]{0.1, -0.1, 0.1}, returns.toArray(), 1e-12);
+    }
+
+    @Test
+    void slidingAndTumblingWindows() {
+        assertEquals(List.of(List.of(1, 2, 3), List.of(2, 3, 4), List.of(3, 4, 5)), Seq.of(numbers).slidingWindows(3).map(Window::copy).toList());
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), Seq.of(numbers).tumblingWindows(2).map(Window::copy).toList());
+        assertEquals(2, Seq.of(numbers).tumblingWindows(2).limit(2).getCount());
+        assertThrows(IllegalArgumentException.class, () -> Seq.of(numbers).slidingWindows(0));
+    }
+
+    @Test
+    void terminalOperations() {
+        assertEquals(15, Seq.of(numbers).reduce(0, Integer::sum));
+        assertEquals(5, Seq.of(numbers).getCount());
+        List<Integer> visited = new ArrayList<>();
+        Seq.of(numbers).forEach(visited::add);
+        assertEquals(numbers, visited);
+    }
+
+    @Test
+    void canBeRunMoreThanOnce() {
+        Seq<Integer> doubled = Seq.of(numbers).map(x -> 2 * x);
+        assertEquals(doubled.toList(), doubled.toList());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExponentialMovingCovarianceTest {
+    private static ExponentialMovingCovariance added(double[] first, double[] second) {
+        ExponentialMovingCovariance covariance = new ExponentialMovingCovariance(0.5);
+        for (int i = 0; i < first.length; i++) {
+            covariance.add(first[i], second[i]);
+        }
+        return covariance;
+    }
+
+    @Test
+    void updatesCovariance() {
+        ExponentialMovingCovariance covariance = added(new double[]{1, 3, 5}, new double[]{2, 6, 10});
+        // Covariances: 0, then 0.5 * (0 + 0.5 * 2 * 4) = 2, then 0.5 * (2 + 0.5 * 3 * 6) = 5.5
+        assertEquals(Optional.of(5.5), covariance.getCovariance());
+        assertEquals(Optional.of(3.5), covariance.getFirstMean());
+        assertEquals(Optional.of(7d), covariance.getSecondMean());
+    }
+
+    @Test
+    void correlationAndBetaOfProportionalStreams() {
+        ExponentialMovingCovariance covariance = added(new double[]{1, 3, 5}, new double[]{2, 6, 10});
+        assertEquals(1, covariance.getCorrelation().orElseThrow(), 1e-15);
+        assertEquals(0.5, covariance.getBeta().orElseThrow(), 1e-15);
+        assertEquals(-1, added(new double[]{1, 3, 5}, new double[]{-1, -3, -5}).getCorrelation().orElseThrow(), 1e-15);
+    }
+
+    @Test
+    void ignoresPairsContainingNaN() {
+        ExponentialMovingCovariance covariance = added(new double[]{1, Double.NaN, 3}, new double[]{2, 4, Double.NaN});
+        assertEquals(1, covariance.getCount());
+    }
+
+    @Test
+    void flatSecondStreamHasUndefinedBeta() {
+        ExponentialMovingCovariance covariance = added(new double[]{1, 2}, new double[]{3, 3});
+        assertTrue(covariance.getBeta().orElseThrow().isNaN());
+        assertTrue(covariance.getCorrelation().orElseThrow().isNaN());
+    }
+
+    @Test
+    void emptyUntilSomethingIsAdded() {
+        ExponentialMovingCovariance covariance = new ExponentialMovingCovariance(0.5);
+        assertEquals(Optional.empty(), covariance.getCovariance());
+        assertEquals(Optional.empty(), covariance.getBeta());
+        covariance.add(1, 2);
+        covariance.clear();
+        assertEquals(Optional.empty(), covariance.getCorrelation());
+    }
+
+    @Test
+    void rejectsAlphaOutsideRange() {
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialMovingCovariance(0));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExponentialMovingStatisticsTest {
+    @Test
+    void updatesMeanAndVariance() {
+        ExponentialMovingStatistics statistics = new ExponentialMovingStatistics(0.5);
+        statistics.addAll(List.of(1, 3, 5));
+        // Variances: 0, then 0.5 * (0 + 0.5 * 4) = 1, then 0.5 * (1 + 0.5 * 9) = 2.75
+        assertEquals(Optional.of(3.5), statistics.getMean());
+        assertEquals(Optional.of(2.75), statistics.getVariance());
+        assertEquals(Math.sqrt(2.75), statistics.getStandardDeviation().orElseThrow(), 1e-15);
+        assertEquals(3, statistics.getCount());
+    }
+
+    @Test
+    void ignoresNaN() {
+        ExponentialMovingStatistics statistics = new ExponentialMovingStatistics(0.5);
+        statistics.addAll(List.of(1, Double.NaN, 3));
+        assertEquals(2, statistics.getCount());
+        assertEquals(Optional.of(2d), statistics.getMean());
+    }
+
+    @Test
+    void alphaOfOneTracksTheLatestNumber() {
+        ExponentialMovingStatistics statistics = new ExponentialMovingStatistics(1);
+        statistics.addAll(List.of(4, 7, 2));
+        assertEquals(Optional.of(2d), statistics.getMean());
+        assertEquals(Optional.of(0d), statistics.getVariance());
+    }
+
+    @Test
+    void alphaConversions() {
+        assertEquals(0.5, ExponentialMovingStatistics.alphaForHalfLife(1), 1e-15);
+        assertEquals(1 - Math.sqrt(0.5), ExponentialMovingStatistics.alphaForHalfLife(2), 1e-15);
+        assertEquals(0.5, ExponentialMovingStatistics.alphaForSpan(3));
+        assertEquals(1, ExponentialMovingStatistics.alphaForSpan(1));
+        assertThrows(IllegalArgumentException.class, () -> ExponentialMovingStatistics.alphaForHalfLife(0));
+        assertThrows(IllegalArgumentException.class, () -> ExponentialMovingStatistics.alphaForSpan(0.5));
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        ExponentialMovingStatistics statistics = new ExponentialMovingStatistics(0.5);
+        statistics.addAll(List.of(1, 3));
+        statistics.clear();
+        assertEquals(Optional.empty(), statistics.getMean());
+        statistics.add(9);
+        assertEquals(Optional.of(9d), statistics.getMean());
+    }
+
+    @Test
+    void rejectsAlphaOutsideRange() {
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialMovingStatistics(0));
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialMovingStatistics(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialMovingStatistics(Double.NaN));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLinearHistogramTest {
+    /**
+     * @return A histogram of the values 0.001, 0.002, ..., n / 1000
+     */
+    private static LogLinearHistogram ofMillis(int n) {
+        LogLinearHistogram histogram = new LogLinearHistogram(1e-6, 1e6);
+        for (int i = 1; i <= n; i++) {
+            histogram.record(i / 1000d);
+        }
+        return histogram;
+    }
+
+    @Test
+    void quantilesAreWithinTheRelativeError() {
+        int n = 100_000;
+        LogLinearHistogram histogram = ofMillis(n);
+        double[] fractions = {0.5, 0.99, 0.999};
+        double[] quantiles = histogram.getQuantiles(fractions).orElseThrow();
+        for (int i = 0; i < fractions.length; i++) {
+            double expected = fractions[i] * n / 1000;
+            assertEquals(expected, quantiles[i], expected * histogram.getRelativeError() * 1.01);
+        }
+        assertEquals(quantiles[1], histogram.getQuantile(0.99).orElseThrow());
+    }
+
+    @Test
+    void meanIsWithinTheRelativeError() {
+        int n = 100_000;
+        LogLinearHistogram histogram = ofMillis(n);
+        assertEquals(n / 2000d, histogram.getArithmeticMean().orElseThrow(), n / 2000d * histogram.getRelativeError());
+    }
+
+    @Test
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        LogLinearHistogram histogram = new LogLinearHistogram(1e-6, 1e6);
+        int threads = 4, perThread = 250_000;
+        Thread[] recorders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            recorders[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record((i * threads + offset + 1) / 1000d);
+                }
+            });
+            recorders[t].start();
+        }
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+        assertEquals((long) threads * perThread, histogram.getCount());
+        assertEquals(ofMillis(threads * perThread).getBuckets(), histogram.getBuckets());
+    }
+
+    @Test
+    void bucketsCoverNegativesZeroAndClampedValues() {
+        LogLinearHistogram returns = new LogLinearHistogram(1e-4, 10, 5, 1);
+        returns.recordAll(new double[]{-0.05, 0.02, 0, 1e-5, Double.NaN, 100});
+        returns.record(0.02, 2);
+        List<LogLinearHistogram.Bucket> buckets = returns.getBuckets();
+        assertEquals(4, buckets.size());
+        assertTrue(buckets.get(0).lowerBound() <= -0.05 && -0.05 < buckets.get(0).upperBound());
+        assertEquals(2, buckets.get(1).count());
+        assertEquals(0, buckets.get(1).midpoint());
+        assertEquals(3, buckets.get(2).count());
+        assertEquals(Optional.of(buckets.get(0).midpoint()), returns.getQuantile(0));
+        assertEquals(Optional.of(buckets.get(3).midpoint()), returns.getQuantile(1));
+    }
+
+    @Test
+    void serialisationRoundTrips() {
+        LogLinearHistogram histogram = ofMillis(100_000);
+        byte[] bytes = histogram.toByteArray();
+        LogLinearHistogram copy = LogLinearHistogram.fromByteArray(bytes);
+        assertEquals(histogram.getBuckets(), copy.getBuckets());
+        assertEquals(histogram.getRelativeError(), copy.getRelativeError());
+        assertTrue(bytes.length < histogram.getBuckets().size() * 6 + 64);
+    }
+
+    @Test
+    void combineAddsCounts() {
+        LogLinearHistogram histogram = ofMillis(1000);
+        LogLinearHistogram other = ofMillis(1000);
+        histogram.combine(other);
+        assertEquals(2000, histogram.getCount());
+        assertEquals(1000, other.getCount());
+        assertEquals(other.getQuantile(0.5), histogram.getQuantile(0.5));
+    }
+
+    @Test
+    void clearResetsCounts() {
+        LogLinearHistogram histogram = ofMillis(10);
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+        assertEquals(Optional.empty(), histogram.getQuantile(0.5));
+        assertEquals(Optional.empty(), histogram.getArithmeticMean());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        LogLinearHistogram histogram = ofMillis(10);
+        assertThrows(IllegalArgumentException.class, () -> histogram.combine(new LogLinearHistogram(1e-4, 10)));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getQuantile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> LogLinearHistogram.fromByteArray(new byte[]{1, 2, 3}));
+        assertThrows(IllegalArgumentException.class, () -> new LogLinearHistogram(2, 1));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+    private static final int N = 1_000_000;
+
+    /**
+     * @return The integers from 0 to n - 1, shuffled
+     */
+    private static double[] shuffledRange(int n, long seed) {
+        double[] numbers = new double[n];
+        for (int i = 0; i < n; i++) {
+            numbers[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double swap = numbers[i];
+            numbers[i] = numbers[j];
+            numbers[j] = swap;
+        }
+        return numbers;
+    }
+
+    @Test
+    void quantilesAreWithinTheRankErrorBound() {
+        QuantileSketch sketch = QuantileSketch.of(shuffledRange(N, 3));
+        assertEquals(N, sketch.getCount());
+        double tolerance = sketch.getNormalisedRankError() * N;
+        for (double fraction : new double[]{0.01, 0.5, 0.9, 0.99}) {
+            assertEquals(fraction * N, sketch.getQuantile(fraction).orElseThrow(), tolerance);
+        }
+    }
+
+    @Test
+    void ranksAreWithinTheRankErrorBound() {
+        QuantileSketch sketch = QuantileSketch.of(shuffledRange(N, 3));
+        for (double fraction : new double[]{0.01, 0.5, 0.9, 0.99}) {
+            assertEquals(fraction, sketch.getRank(fraction * N).orElseThrow(), sketch.getNormalisedRankError());
+        }
+    }
+
+    @Test
+    void memoryStaysBounded() {
+        QuantileSketch sketch = QuantileSketch.of(shuffledRange(N, 3));
+        assertTrue(sketch.getRetainedCount() < 4 * sketch.getK());
+    }
+
+    @Test
+    void extremesAreExact() {
+        QuantileSketch sketch = QuantileSketch.of(shuffledRange(N, 3));
+        assertEquals(0, sketch.getQuantile(0).orElseThrow());
+        assertEquals(N - 1, sketch.getQuantile(1).orElseThrow());
+        assertEquals(Optional.of(0d), sketch.getMinimum());
+        assertEquals(Optional.of(N - 1d), sketch.getMaximum());
+    }
+
+    @Test
+    void combinedSketchesMatchTheWholeInput() {
+        double[] numbers = shuffledRange(N, 4);
+        QuantileSketch first = new QuantileSketch(2000, 1);
+        QuantileSketch second = new QuantileSketch(2000, 2);
+        for (int i = 0; i < N; i++) {
+            (i % 2 == 0 ? first : second).add(numbers[i]);
+        }
+        first.combine(second);
+        assertEquals(N, first.getCount());
+        assertEquals(0.999 * N, first.getQuantile(0.999).orElseThrow(), first.getNormalisedRankError() * N);
+    }
+
+    @Test
+    void getQuantilesMatchesGetQuantile() {
+        QuantileSketch sketch = QuantileSketch.of(shuffledRange(100_000, 5));
+        assertArrayEquals(new double[]{sketch.getQuantile(0.5).orElseThrow(), sketch.getQuantile(0.99).orElseThrow()}, sketch.getQuantiles(0.5, 0.99).orElseThrow());
+    }
+
+    @Test
+    void smallInputsAreExact() {
+        assertEquals(Optional.of(2d), QuantileSketch.of(List.of(3, 1, 2)).getQuantile(0.5));
+    }
+
+    @Test
+    void ignoresNaN() {
+        QuantileSketch sketch = QuantileSketch.of(List.of(3, 1, 2, Double.NaN));
+        assertEquals(3, sketch.getCount());
+        assertEquals(Optional.of(2d), sketch.getQuantile(0.5));
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(Optional.empty(), sketch.getQuantile(0.5));
+        assertEquals(Optional.empty(), sketch.getQuantiles(0.5));
+        assertEquals(Optional.empty(), sketch.getRank(1));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        QuantileSketch sketch = QuantileSketch.of(1, 2, 3);
+        assertThrows(IllegalArgumentException.class, () -> sketch.getQuantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.combine(new QuantileSketch(400)));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(4));
+    }
+}
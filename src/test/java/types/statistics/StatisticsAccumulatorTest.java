@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsAccumulatorTest {
+    @Test
+    void accumulatesSummaryStatistics() {
+        StatisticsAccumulator accumulator = StatisticsAccumulator.of(2, 4, 4, 4, 5, 5, 7, 9);
+        assertEquals(8, accumulator.getCount());
+        assertEquals(40, accumulator.getSum());
+        assertEquals(Optional.of(5d), accumulator.getArithmeticMean());
+        assertEquals(Optional.of(4d), accumulator.getPopulationVariance());
+        assertEquals(32d / 7, accumulator.getSampleVariance().orElseThrow(), 1e-15);
+        assertEquals(Optional.of(2d), accumulator.getPopulationStandardDeviation());
+        assertEquals(Optional.of(2d), accumulator.getMinimum());
+        assertEquals(Optional.of(9d), accumulator.getMaximum());
+    }
+
+    @Test
+    void acceptsAnyNumberType() {
+        StatisticsAccumulator accumulator = StatisticsAccumulator.of(List.of(1, 2L, 3.0f));
+        accumulator.addAll(List.of(4d));
+        assertEquals(Optional.of(2.5), accumulator.getArithmeticMean());
+    }
+
+    @Test
+    void isEmptyWhenNothingAccumulated() {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        assertEquals(0, accumulator.getCount());
+        assertEquals(Optional.empty(), accumulator.getArithmeticMean());
+        assertEquals(Optional.empty(), accumulator.getMinimum());
+        assertEquals(Optional.empty(), accumulator.getSampleVariance());
+    }
+
+    @Test
+    void sampleVarianceOfOneNumberIsNaN() {
+        assertTrue(StatisticsAccumulator.of(3).getSampleVariance().orElseThrow().isNaN());
+    }
+
+    @Test
+    void combineMatchesAccumulatingEverything() {
+        Random random = new Random(5);
+        double[] numbers = new double[1000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextGaussian() * 10 + 100;
+        }
+        StatisticsAccumulator whole = StatisticsAccumulator.of(numbers);
+        StatisticsAccumulator first = new StatisticsAccumulator(), second = new StatisticsAccumulator();
+        for (int i = 0; i < numbers.length; i++) {
+            (i < 300 ? first : second).add(numbers[i]);
+        }
+        StatisticsAccumulator combined = first.combine(second);
+
+        assertEquals(1000, combined.getCount());
+        assertEquals(whole.getSum(), combined.getSum(), 1e-9);
+        assertEquals(whole.getArithmeticMean().orElseThrow(), combined.getArithmeticMean().orElseThrow(), 1e-12);
+        assertEquals(whole.getSampleVariance().orElseThrow(), combined.getSampleVariance().orElseThrow(), 1e-9);
+        assertEquals(whole.getMinimum(), combined.getMinimum());
+        assertEquals(whole.getMaximum(), combined.getMaximum());
+    }
+
+    @Test
+    void combineWithEmptyAccumulators() {
+        StatisticsAccumulator empty = new StatisticsAccumulator();
+        assertEquals(Optional.of(2d), empty.combine(StatisticsAccumulator.of(1, 3)).getArithmeticMean());
+        StatisticsAccumulator accumulator = StatisticsAccumulator.of(1, 3);
+        assertEquals(2, accumulator.combine(new StatisticsAccumulator()).getCount());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleWindowTest {
+    @Test
+    void evictsOldestWhenFull() {
+        DoubleWindow window = new DoubleWindow(3);
+        for (int i = 1; i <= 5; i++) {
+            window.push(i);
+        }
+        assertTrue(window.isFull());
+        assertEquals(3, window.get(0));
+        assertEquals(5, window.get(2));
+    }
+
+    @Test
+    void copyUnwrapsTheRingBuffer() {
+        DoubleWindow window = new DoubleWindow(4);
+        for (int i = 1; i <= 6; i++) {
+            window.push(i);
+        }
+        assertArrayEquals(new double[]{3, 4, 5, 6}, window.copy());
+        window.clear();
+        window.push(7);
+        assertArrayEquals(new double[]{7}, window.copy());
+    }
+
+    @Test
+    void copyOfPartlyFilledWindow() {
+        DoubleWindow window = new DoubleWindow(4);
+        window.push(1);
+        window.push(2);
+        assertEquals(2, window.size());
+        assertFalse(window.isFull());
+        assertArrayEquals(new double[]{1, 2}, window.copy());
+    }
+
+    @Test
+    void rejectsIndicesOutsideTheWindow() {
+        DoubleWindow window = new DoubleWindow(2);
+        assertThrows(IndexOutOfBoundsException.class, () -> window.get(0));
+    }
+
+    @Test
+    void rejectsCapacityBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new DoubleWindow(0));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingExtremesTest {
+    private static RollingExtremes pushed(int capacity, double... values) {
+        RollingExtremes extremes = new RollingExtremes(capacity);
+        for (double value : values) {
+            extremes.push(value);
+        }
+        return extremes;
+    }
+
+    @Test
+    void tracksTheMostRecentValues() {
+        RollingExtremes extremes = pushed(3, 9, 1, 5, 4, 6);
+        assertEquals(3, extremes.getCount());
+        assertEquals(Optional.of(4d), extremes.getMinimum());
+        assertEquals(Optional.of(6d), extremes.getMaximum());
+    }
+
+    @Test
+    void extremesLeaveWithTheirValues() {
+        RollingExtremes extremes = pushed(2, 1, 9);
+        assertEquals(Optional.of(1d), extremes.getMinimum());
+        extremes.push(5);
+        assertEquals(Optional.of(5d), extremes.getMinimum());
+        assertEquals(Optional.of(9d), extremes.getMaximum());
+        extremes.push(3);
+        assertEquals(Optional.of(5d), extremes.getMaximum());
+    }
+
+    @Test
+    void skipsNaN() {
+        RollingExtremes extremes = pushed(3, 4, 2, Double.NaN);
+        assertEquals(Optional.of(2d), extremes.getMinimum());
+        assertEquals(Optional.of(4d), extremes.getMaximum());
+        assertEquals(3, extremes.getCount());
+    }
+
+    @Test
+    void clearEmptiesTheWindow() {
+        RollingExtremes extremes = pushed(3, 1, 8);
+        extremes.clear();
+        assertEquals(Optional.empty(), extremes.getMaximum());
+        assertEquals(0, extremes.getCount());
+    }
+
+    @Test
+    void rejectsCapacityBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new RollingExtremes(0));
+    }
+}
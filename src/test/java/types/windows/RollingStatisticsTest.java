@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingStatisticsTest {
+    private static RollingStatistics pushed(int capacity, double... values) {
+        RollingStatistics statistics = new RollingStatistics(capacity);
+        for (double value : values) {
+            statistics.push(value);
+        }
+        return statistics;
+    }
+
+    @Test
+    void tracksTheMostRecentValues() {
+        RollingStatistics statistics = pushed(3, 4, 2, 1, 6, 8);
+        assertEquals(3, statistics.getCount());
+        assertTrue(statistics.isFull());
+        assertEquals(Optional.of(5d), statistics.getArithmeticMean());
+        assertEquals(Optional.of(13d), statistics.getSampleVariance());
+        assertEquals(26d / 3, statistics.getPopulationVariance().orElseThrow(), 1e-12);
+    }
+
+    @Test
+    void staysAccurateOverLongSeries() {
+        RollingStatistics statistics = new RollingStatistics(4);
+        for (int i = 0; i < 100_000; i++) {
+            statistics.push(1e9 + i % 7);
+        }
+        // The window holds 1e9 + {1, 2, 3, 4}, since 99_996 % 7 = 1
+        assertEquals(1e9 + 2.5, statistics.getArithmeticMean().orElseThrow(), 1e-6);
+        assertEquals(5d / 3, statistics.getSampleVariance().orElseThrow(), 1e-6);
+    }
+
+    @Test
+    void nanPoisonsOnlyWhileInTheWindow() {
+        RollingStatistics statistics = pushed(3, 4, 2, Double.NaN);
+        assertTrue(statistics.getArithmeticMean().orElseThrow().isNaN());
+        assertTrue(statistics.getSampleVariance().orElseThrow().isNaN());
+        statistics.push(1);
+        statistics.push(6);
+        statistics.push(8);
+        assertEquals(Optional.of(5d), statistics.getArithmeticMean());
+    }
+
+    @Test
+    void infinityOfOneSignIsTheMean() {
+        RollingStatistics statistics = pushed(3, 1, Double.POSITIVE_INFINITY, 2);
+        assertEquals(Optional.of(Double.POSITIVE_INFINITY), statistics.getArithmeticMean());
+        assertTrue(statistics.getPopulationVariance().orElseThrow().isNaN());
+        statistics.push(Double.NEGATIVE_INFINITY);
+        assertTrue(statistics.getArithmeticMean().orElseThrow().isNaN());
+        statistics.push(3);
+        statistics.push(4);
+        assertEquals(Optional.of(Double.NEGATIVE_INFINITY), statistics.getArithmeticMean());
+    }
+
+    @Test
+    void recoversAsSoonAsInfinityIsEvicted() {
+        RollingStatistics statistics = pushed(3, 1, Double.POSITIVE_INFINITY, 2, 3, 4);
+        assertEquals(Optional.of(3d), statistics.getArithmeticMean());
+        assertEquals(Optional.of(1d), statistics.getSampleVariance());
+    }
+
+    @Test
+    void clearEmptiesTheWindow() {
+        RollingStatistics statistics = pushed(3, 1, Double.NaN, Double.POSITIVE_INFINITY);
+        statistics.clear();
+        assertEquals(0, statistics.getCount());
+        assertEquals(Optional.empty(), statistics.getArithmeticMean());
+        statistics.push(2);
+        assertEquals(Optional.of(2d), statistics.getArithmeticMean());
+    }
+
+    @Test
+    void emptyWindowHasNoStatistics() {
+        RollingStatistics statistics = new RollingStatistics(3);
+        assertEquals(Optional.empty(), statistics.getArithmeticMean());
+        assertEquals(Optional.empty(), statistics.getSampleStandardDeviation());
+        assertTrue(pushed(3, 1).getSampleVariance().orElseThrow().isNaN());
+    }
+
+    @Test
+    void rejectsCapacityBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new RollingStatistics(0));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package types.windows;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowTest {
+    @Test
+    void fillsUpToCapacity() {
+        Window<String> window = new Window<>(3);
+        assertEquals(0, window.size());
+        window.push("a");
+        window.push("b");
+        assertEquals(2, window.size());
+        assertEquals(3, window.capacity());
+        assertFalse(window.isFull());
+        window.push("c");
+        assertTrue(window.isFull());
+        assertEquals(List.of("a", "b", "c"), window.copy());
+    }
+
+    @Test
+    void evictsOldestWhenFull() {
+        Window<Integer> window = new Window<>(3);
+        for (int i = 1; i <= 7; i++) {
+            window.push(i);
+        }
+        assertEquals(3, window.size());
+        assertEquals(5, window.get(0));
+        assertEquals(7, window.get(2));
+        assertEquals(List.of(5, 6, 7), window.copy());
+    }
+
+    @Test
+    void copyIsUnaffectedByLaterPushes() {
+        Window<Integer> window = new Window<>(2);
+        window.push(1);
+        window.push(2);
+        List<Integer> copy = window.copy();
+        window.push(3);
+        assertEquals(List.of(1, 2), copy);
+        assertEquals(List.of(2, 3), window.copy());
+    }
+
+    @Test
+    void iteratesOldestToNewest() {
+        Window<Integer> window = new Window<>(3);
+        for (int i = 1; i <= 4; i++) {
+            window.push(i);
+        }
+        Iterator<Integer> iterator = window.iterator();
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertEquals(4, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void clearEmptiesTheWindow() {
+        Window<Integer> window = new Window<>(2);
+        window.push(1);
+        window.push(2);
+        window.push(3);
+        window.clear();
+        assertEquals(0, window.size());
+        window.push(4);
+        assertEquals(List.of(4), window.copy());
+    }
+
+    @Test
+    void rejectsIndicesOutsideTheWindow() {
+        Window<Integer> window = new Window<>(3);
+        window.push(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> window.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> window.get(-1));
+    }
+
+    @Test
+    void rejectsCapacityBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new Window<>(0));
+    }
+}
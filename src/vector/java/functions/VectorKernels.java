@@ -0,0 +1,145 @@
+/*
+ *    Copyright 2022 Glenn Mamacos
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package functions;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementations of {@link NumericKernels}, built on the incubating Vector API. Compiled separately from the rest
+ * of the library, and only loaded when the jdk.incubator.vector module is present at runtime. Each kernel processes as
+ * many whole vectors as fit in the range, and then finishes the tail with scalar code.
+ */
+final class VectorKernels implements NumericKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double sum(double[] numbers, int fromIndex, int toIndex) {
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        int i = fromIndex;
+        for (int bound = vectorBound(fromIndex, toIndex); i < bound; i += SPECIES.length()) {
+            sums = sums.add(DoubleVector.fromArray(SPECIES, numbers, i));
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < toIndex; i++) {
+            sum += numbers[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Compares with blends rather than lanewise MIN, since MIN propagates NaN while the scalar kernels skip it.
+     */
+    @Override
+    public double minimum(double[] numbers, int fromIndex, int toIndex) {
+        double minimum = numbers[fromIndex];
+        DoubleVector minima = DoubleVector.broadcast(SPECIES, minimum);
+        int i = fromIndex;
+        for (int bound = vectorBound(fromIndex, toIndex); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, numbers, i);
+            minima = minima.blend(vector, vector.lt(minima));
+        }
+        for (double lane : minima.toArray()) {
+            minimum = lane < minimum ? lane : minimum;
+        }
+        for (; i < toIndex; i++) {
+            minimum = numbers[i] < minimum ? numbers[i] : minimum;
+        }
+        return minimum;
+    }
+
+    @Override
+    public double maximum(double[] numbers, int fromIndex, int toIndex) {
+        double maximum = numbers[fromIndex];
+        DoubleVector maxima = DoubleVector.broadcast(SPECIES, maximum);
+        int i = fromIndex;
+        for (int bound = vectorBound(fromIndex, toIndex); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, numbers, i);
+            maxima = maxima.blend(vector, maxima.lt(vector));
+        }
+        for (double lane : maxima.toArray()) {
+            maximum = lane > maximum ? lane : maximum;
+        }
+        for (; i < toIndex; i++) {
+            maximum = numbers[i] > maximum ? numbers[i] : maximum;
+        }
+        return maximum;
+    }
+
+    @Override
+    public double[] minimumAndMaximum(double[] numbers, int fromIndex, int toIndex) {
+        double  minimum = numbers[fromIndex],
+                maximum = minimum;
+        DoubleVector minima = DoubleVector.broadcast(SPECIES, minimum);
+        DoubleVector maxima = minima;
+        int i = fromIndex;
+        for (int bound = vectorBound(fromIndex, toIndex); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, numbers, i);
+            minima = minima.blend(vector, vector.lt(minima));
+            maxima = maxima.blend(vector, maxima.lt(vector));
+        }
+        double[] minimumLanes = minima.toArray(), maximumLanes = maxima.toArray();
+        for (int lane = 0; lane < minimumLanes.length; lane++) {
+            minimum = minimumLanes[lane] < minimum ? minimumLanes[lane] : minimum;
+            maximum = maximumLanes[lane] > maximum ? maximumLanes[lane] : maximum;
+        }
+        for (; i < toIndex; i++) {
+            minimum = numbers[i] < minimum ? numbers[i] : minimum;
+            maximum = numbers[i] > maximum ? numbers[i] : maximum;
+        }
+        return new double[]{minimum, maximum};
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] numbers, int fromIndex, int toIndex, double mean) {
+        DoubleVector means = DoubleVector.broadcast(SPECIES, mean);
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        int i = fromIndex;
+        for (int bound = vectorBound(fromIndex, toIndex); i < bound; i += SPECIES.length()) {
+            DoubleVector deviations = DoubleVector.fromArray(SPECIES, numbers, i).sub(means);
+            sums = deviations.fma(deviations, sums);
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < toIndex; i++) {
+            double deviation = numbers[i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    @Override
+    public double dotProduct(double[] first, double[] second, int fromIndex, int toIndex) {
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        int i = fromIndex;
+        for (int bound = vectorBound(fromIndex, toIndex); i < bound; i += SPECIES.length()) {
+            sums = DoubleVector.fromArray(SPECIES, first, i).fma(DoubleVector.fromArray(SPECIES, second, i), sums);
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < toIndex; i++) {
+            sum += first[i] * second[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return The index at which the last whole vector starting from fromIndex ends
+     */
+    private static int vectorBound(int fromIndex, int toIndex) {
+        return fromIndex + SPECIES.loopBound(toIndex - fromIndex);
+    }
+}